@@ -0,0 +1,79 @@
+// common-adapters/.../availability/CompiledSchedule.java
+package com.souk.common.adapters.availability;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The part of one product's schedule that lives in one timezone, as sorted,
+ * merged minute intervals per day. A window belongs to the local date it starts
+ * on; its end may run past midnight (up to minute 2880), so a lookup for date D
+ * also checks D-1's windows.
+ */
+final class CompiledSchedule {
+    static final int[] NONE = new int[0];
+
+    private final ZoneId zone;
+    private final int[][] weekly;                 // [dayOfWeek - 1] -> {start0, end0, start1, end1, ...}
+    private final Map<LocalDate, int[]> dates;    // replaces the weekly windows for that date
+    private final Set<LocalDate> blackout;
+
+    CompiledSchedule(ZoneId zone, int[][] weekly, Map<LocalDate, int[]> dates, Set<LocalDate> blackout) {
+        this.zone = zone; this.weekly = weekly; this.dates = dates; this.blackout = blackout;
+    }
+
+    ZoneId zone() { return zone; }
+
+    int[] windows(LocalDate d) {
+        if (blackout.contains(d)) return NONE;
+        int[] override = dates.get(d);
+        return override != null ? override : weekly[d.getDayOfWeek().getValue() - 1];
+    }
+
+    /** True if any window overlaps the local range {@code [from, to)}, both already in {@link #zone()}. */
+    boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        LocalDate last = to.toLocalDate();
+        for (LocalDate d = from.toLocalDate().minusDays(1); !d.isAfter(last); d = d.plusDays(1)) {
+            int[] w = windows(d);
+            if (w.length == 0) continue;
+            LocalDateTime midnight = d.atStartOfDay();
+            long a = Math.floorDiv(ChronoUnit.SECONDS.between(midnight, from), 60);
+            long b = -Math.floorDiv(-ChronoUnit.SECONDS.between(midnight, to), 60);
+            if (b <= a) b = a + 1;
+            if (overlaps(w, a, b)) return true;
+        }
+        return false;
+    }
+
+    /** {@code w} is sorted and non-overlapping, so ends rise with starts: check the last window starting before b. */
+    static boolean overlaps(int[] w, long a, long b) {
+        int lo = 0, hi = w.length / 2 - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (w[2 * mid] < b) { found = mid; lo = mid + 1; } else hi = mid - 1;
+        }
+        return found >= 0 && w[2 * found + 1] > a;
+    }
+
+    /** Sorts and merges {start, end} pairs. */
+    static int[] merge(int[] pairs) {
+        int n = pairs.length / 2;
+        if (n == 0) return NONE;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) packed[i] = ((long) pairs[2 * i] << 32) | (pairs[2 * i + 1] & 0xffffffffL);
+        Arrays.sort(packed);
+        int[] out = new int[pairs.length];
+        int len = 0;
+        for (long p : packed) {
+            int s = (int) (p >>> 32), e = (int) p;
+            if (len > 0 && s <= out[len - 1]) out[len - 1] = Math.max(out[len - 1], e);
+            else { out[len++] = s; out[len++] = e; }
+        }
+        return len == out.length ? out : Arrays.copyOf(out, len);
+    }
+}
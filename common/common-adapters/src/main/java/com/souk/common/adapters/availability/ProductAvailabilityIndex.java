@@ -0,0 +1,150 @@
+// common-adapters/.../availability/ProductAvailabilityIndex.java
+package com.souk.common.adapters.availability;
+
+import com.souk.common.adapters.jpa.EntityChangedEvent;
+import com.souk.common.adapters.jpa.IndexBuildBuffer;
+import com.souk.common.domain.Product;
+import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.ProductAvailabilityPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product schedules compiled once on write and grouped by timezone, so a query
+ * converts the instant to local time once per zone and then only does a map
+ * lookup and a binary search per product. Built in the background on startup
+ * and kept current from {@link EntityChangedEvent}s. Only where
+ * {@code product.indexes.enabled} is set.
+ */
+@Component
+@ConditionalOnProperty(value = "product.indexes.enabled", havingValue = "true")
+public class ProductAvailabilityIndex implements ProductAvailabilityPort {
+    private static final Logger log = LoggerFactory.getLogger(ProductAvailabilityIndex.class);
+    private static final int REBUILD_BATCH = 500;
+
+    private final DataAccessPort<Product, Long> products;
+    private final ScheduleCompiler compiler;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<ZoneId, Map<Long, CompiledSchedule>> byZone = new HashMap<>();
+    private final Map<Long, List<ZoneId>> zonesByProduct = new HashMap<>();
+    private final Set<Long> unscheduled = new HashSet<>();
+    private final IndexBuildBuffer changes = new IndexBuildBuffer(this::apply);
+    private volatile boolean ready;
+
+    public ProductAvailabilityIndex(DataAccessPort<Product, Long> products,
+                                    @Value("${availability.default-zone:UTC}") String defaultZone) {
+        this.products = products;
+        this.compiler = new ScheduleCompiler(ZoneId.of(defaultZone));
+    }
+
+    @Override public boolean isReady() { return ready; }
+
+    @Override
+    public List<Long> availableBetween(Instant from, Instant to) {
+        if (to.isBefore(from)) return List.of();
+        List<Long> out = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            out.addAll(unscheduled);
+            for (Map.Entry<ZoneId, Map<Long, CompiledSchedule>> z : byZone.entrySet()) {
+                LocalDateTime localFrom = LocalDateTime.ofInstant(from, z.getKey());
+                LocalDateTime localTo = LocalDateTime.ofInstant(to, z.getKey());
+                z.getValue().forEach((id, s) -> {
+                    if (s.overlaps(localFrom, localTo)) out.add(id);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // a product with windows in several zones can match more than once
+        return out.stream().sorted().distinct().toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent e) {
+        if (e.isFor(Product.class)) changes.accept(e);
+    }
+
+    private void apply(EntityChangedEvent e) {
+        if (e.isDelete()) remove((Long) e.id());
+        else put((Product) e.entity());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread t = new Thread(this::rebuild, "availability-index-product");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            changes.build(() -> products.forEachBatch(REBUILD_BATCH, batch -> batch.forEach(this::put)));
+            ready = true;
+            log.info("Product availability index built: {} scheduled, {} unscheduled in {} ms",
+                    zonesByProduct.size(), unscheduled.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.warn("Product availability index build failed: {}", e.toString());
+        }
+    }
+
+    private void put(Product p) {
+        Long id = p.getId();
+        boolean orderable = Boolean.TRUE.equals(p.getAvailable());
+        boolean hasSchedule = p.getSchedule() != null && p.getSchedule().isObject();
+        // compile outside the lock; only the swap is exclusive
+        List<CompiledSchedule> compiled = orderable && hasSchedule ? compiler.compile(p.getSchedule()) : List.of();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (!orderable) return;
+            if (!hasSchedule) {
+                unscheduled.add(id);
+                return;
+            }
+            List<ZoneId> zones = new ArrayList<>(compiled.size());
+            for (CompiledSchedule s : compiled) {
+                byZone.computeIfAbsent(s.zone(), z -> new HashMap<>()).put(id, s);
+                zones.add(s.zone());
+            }
+            zonesByProduct.put(id, zones);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        unscheduled.remove(id);
+        List<ZoneId> zones = zonesByProduct.remove(id);
+        if (zones == null) return;
+        for (ZoneId z : zones) {
+            Map<Long, CompiledSchedule> m = byZone.get(z);
+            m.remove(id);
+            if (m.isEmpty()) byZone.remove(z);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+// common-adapters/.../availability/ScheduleCompiler.java
+package com.souk.common.adapters.availability;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Turns the {@code Product.schedule} JSON into one {@link CompiledSchedule} per timezone:
+ * <pre>
+ * { "weekly_schedules": [{"day_of_week": ["Mon","Tue"], "start": "09:00", "end": "17:00", "stock": 100, "tz": "Asia/Singapore"}],
+ *   "dates":            [{"date": "2025-12-24", "start": "10:00", "end": "14:00", "stock": 100, "tz": "Asia/Singapore"}],
+ *   "blackout":         ["2025-12-26"] }
+ * </pre>
+ * An end at or before the start runs into the next day. Windows with {@code stock <= 0}
+ * are dropped (a sold-out date entry still overrides the weekly windows); a missing
+ * stock means unlimited. Blackout dates apply in every zone. Malformed entries are
+ * skipped rather than failing the whole schedule.
+ */
+final class ScheduleCompiler {
+    private static final int DAY = 24 * 60;
+
+    private final ZoneId defaultZone;
+
+    ScheduleCompiler(ZoneId defaultZone) {
+        this.defaultZone = defaultZone;
+    }
+
+    List<CompiledSchedule> compile(JsonNode schedule) {
+        Set<LocalDate> blackout = new HashSet<>();
+        for (JsonNode d : iterable(schedule.get("blackout"))) {
+            LocalDate date = date(d.asText());
+            if (date != null) blackout.add(date);
+        }
+
+        Map<ZoneId, Builder> byZone = new LinkedHashMap<>();
+        for (JsonNode w : iterable(schedule.get("weekly_schedules"))) {
+            int[] window = window(w);
+            if (window == null) continue;
+            Builder b = byZone.computeIfAbsent(zone(w), Builder::new);
+            for (JsonNode day : iterable(w.get("day_of_week"))) {
+                DayOfWeek dow = dayOfWeek(day.asText());
+                if (dow != null) b.weekly.get(dow.getValue() - 1).add(window);
+            }
+        }
+        for (JsonNode w : iterable(schedule.get("dates"))) {
+            LocalDate date = w.hasNonNull("date") ? date(w.get("date").asText()) : null;
+            if (date == null) continue;
+            // a sold-out date entry still replaces that day's weekly windows
+            List<int[]> windows = byZone.computeIfAbsent(zone(w), Builder::new).dates.computeIfAbsent(date, k -> new ArrayList<>());
+            int[] window = window(w);
+            if (window != null) windows.add(window);
+        }
+
+        // a schedule with only blackout dates still restricts the product: it is never orderable
+        if (byZone.isEmpty()) byZone.put(defaultZone, new Builder(defaultZone));
+        List<CompiledSchedule> out = new ArrayList<>(byZone.size());
+        for (Builder b : byZone.values()) out.add(b.build(blackout));
+        return out;
+    }
+
+    /** {start, end} in minutes from the start day's midnight, or null if unusable. */
+    private static int[] window(JsonNode w) {
+        if (w.hasNonNull("stock") && w.get("stock").asLong() <= 0) return null;
+        int start = minutes(w.path("start").asText(null));
+        int end = minutes(w.path("end").asText(null));
+        if (start < 0 || end < 0 || start >= DAY) return null;
+        if (end <= start) end += DAY;
+        return new int[]{start, end};
+    }
+
+    private ZoneId zone(JsonNode w) {
+        if (!w.hasNonNull("tz")) return defaultZone;
+        try {
+            return ZoneId.of(w.get("tz").asText());
+        } catch (DateTimeException e) {
+            return defaultZone;
+        }
+    }
+
+    /** "HH:mm" (24:00 allowed) to minutes, or -1. */
+    static int minutes(String hhmm) {
+        if (hhmm == null) return -1;
+        int colon = hhmm.indexOf(':');
+        try {
+            int h = Integer.parseInt(colon < 0 ? hhmm.trim() : hhmm.substring(0, colon).trim());
+            int m = colon < 0 ? 0 : Integer.parseInt(hhmm.substring(colon + 1, Math.min(hhmm.length(), colon + 3)).trim());
+            if (h < 0 || m < 0 || m > 59 || h * 60 + m > DAY) return -1;
+            return h * 60 + m;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static LocalDate date(String s) {
+        try {
+            return LocalDate.parse(s.trim());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    static DayOfWeek dayOfWeek(String s) {
+        if (s == null || s.length() < 3) return null;
+        String p = s.trim().substring(0, 3).toUpperCase(Locale.ROOT);
+        for (DayOfWeek d : DayOfWeek.values()) if (d.name().startsWith(p)) return d;
+        return null;
+    }
+
+    static Iterable<JsonNode> iterable(JsonNode n) {
+        return n != null && n.isArray() ? n : List.of();
+    }
+
+    private static final class Builder {
+        final ZoneId zone;
+        final List<List<int[]>> weekly = new ArrayList<>(7);
+        final Map<LocalDate, List<int[]>> dates = new HashMap<>();
+
+        Builder(ZoneId zone) {
+            this.zone = zone;
+            for (int i = 0; i < 7; i++) weekly.add(new ArrayList<>());
+        }
+
+        CompiledSchedule build(Set<LocalDate> blackout) {
+            int[][] w = new int[7][];
+            for (int i = 0; i < 7; i++) w[i] = CompiledSchedule.merge(flatten(weekly.get(i)));
+            Map<LocalDate, int[]> d = new HashMap<>(dates.size() * 2);
+            dates.forEach((date, windows) -> d.put(date, CompiledSchedule.merge(flatten(windows))));
+            return new CompiledSchedule(zone, w, d, blackout);
+        }
+
+        private static int[] flatten(List<int[]> windows) {
+            int[] out = new int[windows.size() * 2];
+            for (int i = 0; i < windows.size(); i++) {
+                out[2 * i] = windows.get(i)[0];
+                out[2 * i + 1] = windows.get(i)[1];
+            }
+            return out;
+        }
+    }
+}
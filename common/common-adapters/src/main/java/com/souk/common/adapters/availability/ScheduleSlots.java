@@ -0,0 +1,69 @@
+// common-adapters/.../availability/ScheduleSlots.java
+package com.souk.common.adapters.availability;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds the schedule window an order line falls into, with that window's stock.
+ * Times are local to the schedule entry; a window is identified by its start.
+ */
+public final class ScheduleSlots {
+    private static final int DAY = 24 * 60;
+
+    /** {@code stock} is null when the window does not limit quantity. */
+    public record Slot(LocalTime start, Integer stock) {}
+
+    private ScheduleSlots() {}
+
+    /**
+     * The window on {@code date} containing {@code time}, or the earliest window that
+     * day when {@code time} is null. Date entries replace the weekly ones; blackout
+     * dates have no windows.
+     */
+    public static Optional<Slot> find(JsonNode schedule, LocalDate date, LocalTime time) {
+        if (schedule == null || !schedule.isObject() || date == null) return Optional.empty();
+        for (JsonNode d : ScheduleCompiler.iterable(schedule.get("blackout"))) {
+            if (date.equals(ScheduleCompiler.date(d.asText()))) return Optional.empty();
+        }
+
+        List<JsonNode> candidates = new ArrayList<>();
+        for (JsonNode w : ScheduleCompiler.iterable(schedule.get("dates"))) {
+            if (w.hasNonNull("date") && date.equals(ScheduleCompiler.date(w.get("date").asText()))) candidates.add(w);
+        }
+        if (candidates.isEmpty()) {
+            for (JsonNode w : ScheduleCompiler.iterable(schedule.get("weekly_schedules"))) {
+                for (JsonNode day : ScheduleCompiler.iterable(w.get("day_of_week"))) {
+                    if (ScheduleCompiler.dayOfWeek(day.asText()) == date.getDayOfWeek()) {
+                        candidates.add(w);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int at = time == null ? -1 : time.getHour() * 60 + time.getMinute();
+        JsonNode best = null;
+        int bestStart = Integer.MAX_VALUE;
+        for (JsonNode w : candidates) {
+            int start = ScheduleCompiler.minutes(w.path("start").asText(null));
+            int end = ScheduleCompiler.minutes(w.path("end").asText(null));
+            if (start < 0 || end < 0 || start >= DAY) continue;
+            if (end <= start) end += DAY;
+            boolean matches = at < 0 ? start < bestStart : start <= at && at < end;
+            if (matches) {
+                best = w;
+                bestStart = start;
+                if (at >= 0) break;
+            }
+        }
+        if (best == null) return Optional.empty();
+        Integer stock = best.hasNonNull("stock") ? best.get("stock").asInt() : null;
+        return Optional.of(new Slot(LocalTime.of(bestStart / 60, bestStart % 60), stock));
+    }
+}
@@ -0,0 +1,121 @@
+// common-adapters/.../cache/CacheConfig.java
+package com.souk.common.adapters.cache;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.souk.common.adapters.jpa.ProductJpaAdapter;
+import com.souk.common.adapters.jpa.VendorJpaAdapter;
+import com.souk.common.adapters.redis.JacksonSerde;
+import com.souk.common.adapters.redis.RedisCacheAdapter;
+import com.souk.common.domain.Product;
+import com.souk.common.domain.ProductMedia;
+import com.souk.common.domain.Vendor;
+import com.souk.common.port.CachePort;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps the JPA adapters for hot read paths in a two-tier read-through cache.
+ * The caching adapters are {@link Primary}, so controllers pick them up without
+ * changes. Redis (L2) is only used when {@code rediscache.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(value = "cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+    @Value("${cache.l1.maximum-size:10000}")
+    private long l1MaximumSize;
+
+    @Value("${cache.l1.max-ttl:60s}")
+    private Duration l1MaxTtl;
+
+    @Value("${cache.stale-while-revalidate:30s}")
+    private Duration staleWhileRevalidate;
+
+    @Value("${rediscache.enabled:false}")
+    private boolean redisEnabled;
+
+    /**
+     * Background refreshes for stale entries; when saturated the reader refreshes inline.
+     * Deliberately not a bean: an Executor bean would replace Boot's applicationTaskExecutor.
+     */
+    private final ThreadPoolExecutor refresher = new ThreadPoolExecutor(4, 4, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1000), daemonThreads("cache-refresh-"), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    @PreDestroy
+    void shutdown() { refresher.shutdown(); }
+
+    @Bean
+    @Primary
+    public CachingProductAdapter cachingProductAdapter(ProductJpaAdapter jpa,
+                                                       ObjectProvider<StringRedisTemplate> redis,
+                                                       ObjectMapper objectMapper,
+                                                       @Value("${cache.ttl.product:10m}") Duration ttl) {
+        ObjectMapper json = cacheMapper(objectMapper);
+        CachePort<CacheEntry<Product>, Long> products = tiered(redis, entrySerde(json, Product.class), id -> "souk:product:" + id);
+        CachePort<Long, String> skus = tiered(redis, new JacksonSerde<>(json, Long.class), sku -> "souk:product-sku:" + sku);
+        return new CachingProductAdapter(jpa, jpa, products, skus, ttl, staleWhileRevalidate, refresher);
+    }
+
+    @Bean
+    @Primary
+    public CachingDataAccessAdapter<Vendor, Long> cachingVendorAdapter(VendorJpaAdapter jpa,
+                                                                       ObjectProvider<StringRedisTemplate> redis,
+                                                                       ObjectMapper objectMapper,
+                                                                                       @Value("${cache.ttl.vendor:30m}") Duration ttl) {
+        CachePort<CacheEntry<Vendor>, Long> vendors = tiered(redis, entrySerde(cacheMapper(objectMapper), Vendor.class), id -> "souk:vendor:" + id);
+        return new CachingDataAccessAdapter<>("vendor", Vendor.class, jpa, vendors, Vendor::getVendorId, ttl,
+                staleWhileRevalidate, refresher);
+    }
+
+    private <T, ID> CachePort<T, ID> tiered(ObjectProvider<StringRedisTemplate> redis,
+                                            RedisCacheAdapter.Serde<T> serde,
+                                            RedisCacheAdapter.Keyer<ID> keyer) {
+        StringRedisTemplate template = redisEnabled ? redis.getIfAvailable() : null;
+        CachePort<T, ID> l2 = template != null ? new RedisCacheAdapter<>(template, serde, keyer) : null;
+        return new TieredCacheAdapter<>(new LocalCacheAdapter<>(l1MaximumSize), l2, l1MaxTtl);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static <T> JacksonSerde<CacheEntry<T>> entrySerde(ObjectMapper json, Class<T> type) {
+        return new JacksonSerde<>(json, json.getTypeFactory().constructParametricType(CacheEntry.class, type));
+    }
+
+    /** Entities carry a Product <-> ProductMedia cycle; mark it so JSON round-trips keep the back link. */
+    private static ObjectMapper cacheMapper(ObjectMapper base) {
+        return base.copy()
+                .addMixIn(Product.class, ProductMixin.class)
+                .addMixIn(ProductMedia.class, ProductMediaMixin.class);
+    }
+
+    abstract static class ProductMixin {
+        @JsonManagedReference abstract List<ProductMedia> getMedia();
+    }
+
+    abstract static class ProductMediaMixin {
+        @JsonBackReference abstract Product getProduct();
+    }
+}
@@ -0,0 +1,20 @@
+// common-adapters/.../cache/CacheEntry.java
+package com.souk.common.adapters.cache;
+
+/**
+ * Cached value plus what the read-through layer needs to decide freshness:
+ * when it goes stale and how long it took to load (for early expiration).
+ */
+public record CacheEntry<T>(T value, long staleAtMillis, long loadMillis) {
+
+    public boolean isStale(long nowMillis) { return nowMillis >= staleAtMillis; }
+
+    /**
+     * Probabilistic early expiration ("XFetch"): the closer to {@code staleAtMillis}
+     * and the slower the load, the likelier one reader refreshes ahead of time,
+     * so hot keys written together do not all expire together.
+     */
+    public boolean shouldRefreshEarly(long nowMillis, double beta, double random) {
+        return nowMillis - loadMillis * beta * Math.log(random) >= staleAtMillis;
+    }
+}
@@ -0,0 +1,57 @@
+// common-adapters/.../cache/CacheStats.java
+package com.souk.common.adapters.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one read-through cache. Per-key coalescing counts are kept for
+ * the most active keys only (bounded), totals are exact.
+ */
+public class CacheStats {
+    private static final int MAX_TRACKED_KEYS = 1000;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final Cache<Object, LongAdder> coalescedByKey = Caffeine.newBuilder().maximumSize(MAX_TRACKED_KEYS).build();
+
+    void hit() { hits.increment(); }
+    void miss() { misses.increment(); }
+    void load() { loads.increment(); }
+    void staleServed() { staleServed.increment(); }
+    void earlyRefresh() { earlyRefreshes.increment(); }
+
+    void coalesced(Object key) {
+        coalesced.increment();
+        coalescedByKey.get(key, k -> new LongAdder()).increment();
+    }
+
+    public long coalescedFor(Object key) {
+        LongAdder n = coalescedByKey.getIfPresent(key);
+        return n == null ? 0 : n.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("hits", hits.sum());
+        out.put("misses", misses.sum());
+        out.put("loads", loads.sum());
+        out.put("coalesced", coalesced.sum());
+        out.put("staleServed", staleServed.sum());
+        out.put("earlyRefreshes", earlyRefreshes.sum());
+        Map<String, Long> perKey = new LinkedHashMap<>();
+        coalescedByKey.asMap().entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(e -> perKey.put(String.valueOf(e.getKey()), e.getValue().sum()));
+        out.put("coalescedByKey", perKey);
+        return out;
+    }
+}
@@ -0,0 +1,251 @@
+// common-adapters/.../cache/CachingDataAccessAdapter.java
+package com.souk.common.adapters.cache;
+
+import com.souk.common.adapters.jpa.EntityChangedEvent;
+import com.souk.common.port.CachePort;
+import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.KeysetPage;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Read-through cache around a {@link DataAccessPort}. {@code findById} is served
+ * from the cache and loaded on a miss; writes evict the entry. Scans and pages
+ * go straight to the delegate.
+ * <p>
+ * Stampede protection: concurrent misses for one key share a single load
+ * (single-flight), entries past their TTL are still served for
+ * {@code staleWhileRevalidate} while one background refresh runs, and fresh
+ * entries are refreshed probabilistically just before they go stale.
+ */
+public class CachingDataAccessAdapter<T, ID> implements DataAccessPort<T, ID> {
+    private static final double EARLY_EXPIRY_BETA = 1.0;
+
+    protected final DataAccessPort<T, ID> delegate;
+    protected final CachePort<CacheEntry<T>, ID> cache;
+    protected final Duration ttl;
+    private final Duration staleWhileRevalidate;
+    private final Function<T, ID> idOf;
+    private final Executor refresher;
+    private final String name;
+    private final Class<T> type;
+    private final CacheStats stats = new CacheStats();
+
+    private final ConcurrentHashMap<ID, CompletableFuture<Optional<T>>> inFlight = new ConcurrentHashMap<>();
+    // bumped on every write; a load that overlaps a write does not populate the cache
+    private final AtomicLong writeEpoch = new AtomicLong();
+
+    public CachingDataAccessAdapter(String name, Class<T> type, DataAccessPort<T, ID> delegate, CachePort<CacheEntry<T>, ID> cache,
+                                    Function<T, ID> idOf, Duration ttl, Duration staleWhileRevalidate,
+                                    Executor refresher) {
+        this.name = name; this.type = type; this.delegate = delegate; this.cache = cache; this.idOf = idOf;
+        this.ttl = ttl; this.staleWhileRevalidate = staleWhileRevalidate; this.refresher = refresher;
+    }
+
+    public String name() { return name; }
+    public CacheStats stats() { return stats; }
+
+    /**
+     * Rows written past this adapter: by other adapters bumping them (media writes bump their
+     * product), or on another instance (replayed from the change feed). Evicted once the
+     * write has committed.
+     */
+    @SuppressWarnings("unchecked")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent e) {
+        if (e.isFor(type)) evict((ID) e.id());
+    }
+
+    @Override public Optional<T> findById(ID id) {
+        Optional<CacheEntry<T>> hit = cache.get(id);
+        if (hit.isEmpty()) {
+            stats.miss();
+            return loadCoalesced(id);
+        }
+        stats.hit();
+        revalidateIfDue(id, hit.get());
+        return Optional.of(hit.get().value());
+    }
+
+    /** Always loaded: a cached instance is shared, and changes made to it before a save would leak to readers. */
+    @Override public Optional<T> findForWrite(ID id) { return delegate.findById(id); }
+
+    /** Cache hits first, then one batched query for the misses; keeps the requested order. */
+    @Override public List<T> findAllById(Collection<ID> ids) {
+        Collection<ID> distinct = new LinkedHashSet<>(ids);
+        Map<ID, T> found = new HashMap<>();
+        cache.getAll(distinct).forEach((id, e) -> {
+            found.put(id, e.value());
+            revalidateIfDue(id, e);
+        });
+        if (found.size() < distinct.size()) {
+            List<ID> missing = distinct.stream().filter(id -> !found.containsKey(id)).toList();
+            long epoch = writeEpoch.get();
+            long started = System.currentTimeMillis();
+            Map<ID, T> loaded = new HashMap<>();
+            for (T v : delegate.findAllById(missing)) loaded.put(idOf.apply(v), v);
+            if (epoch == writeEpoch.get()) {
+                long loadMillis = System.currentTimeMillis() - started;
+                Map<ID, CacheEntry<T>> entries = new HashMap<>();
+                loaded.forEach((id, v) -> entries.put(id, entry(v, loadMillis)));
+                cache.putAll(entries, ttl.plus(staleWhileRevalidate));
+            }
+            found.putAll(loaded);
+        }
+        List<T> out = new ArrayList<>(found.size());
+        for (ID id : distinct) {
+            T v = found.get(id);
+            if (v != null) out.add(v);
+        }
+        return out;
+    }
+
+    @Override public T save(T entity) {
+        ID id = idOf.apply(entity);
+        writeEpoch.incrementAndGet();
+        try {
+            return delegate.save(entity);
+        } finally {
+            // also on failure: callers may have mutated the cached instance
+            if (id != null) cache.evict(id);
+        }
+    }
+
+    @Override public List<T> saveAll(Collection<T> entities) {
+        writeEpoch.incrementAndGet();
+        try {
+            return delegate.saveAll(entities);
+        } finally {
+            for (T e : entities) {
+                ID id = idOf.apply(e);
+                if (id != null) cache.evict(id);
+            }
+        }
+    }
+
+    @Override public void deleteById(ID id) {
+        writeEpoch.incrementAndGet();
+        try {
+            delegate.deleteById(id);
+        } finally {
+            cache.evict(id);
+        }
+    }
+
+    @Override public WriteResult<T> updateIfVersion(ID id, Long expectedVersion, Map<String, ?> changes) {
+        writeEpoch.incrementAndGet();
+        try {
+            return delegate.updateIfVersion(id, expectedVersion, changes);
+        } finally {
+            cache.evict(id);
+        }
+    }
+
+    @Override public List<ID> updateWhere(String attribute, Object value, Map<String, ?> changes) {
+        writeEpoch.incrementAndGet();
+        List<ID> changed = delegate.updateWhere(attribute, value, changes);
+        for (ID id : changed) cache.evict(id);
+        return changed;
+    }
+
+    @Override public WriteResult<T> deleteIfVersion(ID id, Long expectedVersion) {
+        writeEpoch.incrementAndGet();
+        try {
+            return delegate.deleteIfVersion(id, expectedVersion);
+        } finally {
+            cache.evict(id);
+        }
+    }
+
+    @Override public List<T> findAll() { return delegate.findAll(); }
+    @Override public KeysetPage<T, ID> findPage(ID afterId, int limit, Direction sort) {
+        return delegate.findPage(afterId, limit, sort);
+    }
+    @Override public void streamAll(int fetchSize, Consumer<? super T> sink) { delegate.streamAll(fetchSize, sink); }
+
+    /** Drops an entry whose row was written without going through this adapter. */
+    protected void evict(ID id) {
+        writeEpoch.incrementAndGet();
+        cache.evict(id);
+    }
+
+    /** Stores a value loaded outside {@link #findById} (e.g. by a secondary lookup). */
+    protected void store(ID id, T value, long loadMillis) {
+        cache.put(id, entry(value, loadMillis), ttl.plus(staleWhileRevalidate));
+    }
+
+    private CacheEntry<T> entry(T value, long loadMillis) {
+        return new CacheEntry<>(value, System.currentTimeMillis() + ttl.toMillis(), loadMillis);
+    }
+
+    private void revalidateIfDue(ID id, CacheEntry<T> e) {
+        long now = System.currentTimeMillis();
+        if (e.isStale(now)) {
+            stats.staleServed();
+            refreshAsync(id);
+        } else if (e.shouldRefreshEarly(now, EARLY_EXPIRY_BETA, ThreadLocalRandom.current().nextDouble())) {
+            stats.earlyRefresh();
+            refreshAsync(id);
+        }
+    }
+
+    private Optional<T> loadCoalesced(ID id) {
+        CompletableFuture<Optional<T>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<T>> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            stats.coalesced(id);
+            return await(running);
+        }
+        load(id, mine);
+        return await(mine);
+    }
+
+    private void refreshAsync(ID id) {
+        CompletableFuture<Optional<T>> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(id, mine) != null) return; // a load for this key is already running
+        refresher.execute(() -> load(id, mine));
+    }
+
+    private void load(ID id, CompletableFuture<Optional<T>> result) {
+        long epoch = writeEpoch.get();
+        long started = System.currentTimeMillis();
+        try {
+            stats.load();
+            Optional<T> loaded = delegate.findById(id);
+            if (epoch == writeEpoch.get()) {
+                loaded.ifPresent(v -> store(id, v, System.currentTimeMillis() - started));
+            }
+            result.complete(loaded);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            inFlight.remove(id, result);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+// common-adapters/.../cache/CachingProductAdapter.java
+package com.souk.common.adapters.cache;
+
+import com.souk.common.domain.Product;
+import com.souk.common.port.CachePort;
+import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.ProductQueryPort;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Product read-through cache. SKU lookups go through a small sku -> id index
+ * so both paths share the single cached Product entry (and its eviction).
+ */
+public class CachingProductAdapter extends CachingDataAccessAdapter<Product, Long> implements ProductQueryPort {
+    private final ProductQueryPort queries;
+    private final CachePort<Long, String> skuIndex;
+
+    public CachingProductAdapter(DataAccessPort<Product, Long> delegate, ProductQueryPort queries,
+                                 CachePort<CacheEntry<Product>, Long> cache, CachePort<Long, String> skuIndex,
+                                 Duration ttl, Duration staleWhileRevalidate, Executor refresher) {
+        super("product", Product.class, delegate, cache, Product::getId, ttl, staleWhileRevalidate, refresher);
+        this.queries = queries;
+        this.skuIndex = skuIndex;
+    }
+
+    @Override
+    public Optional<Product> findBySku(String sku) {
+        Optional<Long> id = skuIndex.get(sku);
+        if (id.isPresent()) {
+            // the sku may have moved to another row since it was indexed
+            Optional<Product> hit = findById(id.get()).filter(p -> sku.equals(p.getSku()));
+            if (hit.isPresent()) return hit;
+            skuIndex.evict(sku);
+        }
+        long started = System.currentTimeMillis();
+        Optional<Product> loaded = queries.findBySku(sku);
+        loaded.ifPresent(p -> {
+            skuIndex.put(sku, p.getId(), ttl);
+            store(p.getId(), p, System.currentTimeMillis() - started);
+        });
+        return loaded;
+    }
+
+    /** Not cached: bulk callers (imports) want the rows as they are now, and usually write them next. */
+    @Override
+    public List<Product> findAllBySku(Collection<String> skus) {
+        return queries.findAllBySku(skus);
+    }
+}
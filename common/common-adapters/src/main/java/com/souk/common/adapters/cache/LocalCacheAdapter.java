@@ -0,0 +1,50 @@
+// common-adapters/.../cache/LocalCacheAdapter.java
+package com.souk.common.adapters.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.souk.common.port.CachePort;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Size-bounded in-process cache (Caffeine, W-TinyLFU eviction) honouring the
+ * per-entry TTL passed to {@link #put}.
+ */
+public class LocalCacheAdapter<T, ID> implements CachePort<T, ID> {
+
+    private record Entry<T>(T value, long ttlNanos) {}
+
+    private final Cache<ID, Entry<T>> cache;
+
+    public LocalCacheAdapter(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<ID, Entry<T>>() {
+                    @Override public long expireAfterCreate(ID id, Entry<T> e, long now) { return e.ttlNanos(); }
+                    @Override public long expireAfterUpdate(ID id, Entry<T> e, long now, long left) { return e.ttlNanos(); }
+                    @Override public long expireAfterRead(ID id, Entry<T> e, long now, long left) { return left; }
+                })
+                .build();
+    }
+
+    @Override public Optional<T> get(ID id) {
+        Entry<T> e = cache.getIfPresent(id);
+        return e == null ? Optional.empty() : Optional.of(e.value());
+    }
+    @Override public void put(ID id, T value, Duration ttl) {
+        cache.put(id, new Entry<>(value, ttl.toNanos()));
+    }
+    @Override public void evict(ID id) { cache.invalidate(id); }
+
+    @Override public Map<ID, T> getAll(Collection<ID> ids) {
+        Map<ID, T> hits = new HashMap<>();
+        cache.getAllPresent(ids).forEach((id, e) -> hits.put(id, e.value()));
+        return hits;
+    }
+}
@@ -0,0 +1,88 @@
+// common-adapters/.../cache/TieredCacheAdapter.java
+package com.souk.common.adapters.cache;
+
+import com.souk.common.port.CachePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * L1 (in-process) in front of an optional shared L2 (Redis). L1 entries are
+ * capped at {@code l1MaxTtl} because an eviction on one instance does not reach
+ * the L1 of the others. L2 failures degrade to a miss instead of failing the read.
+ */
+public class TieredCacheAdapter<T, ID> implements CachePort<T, ID> {
+    private static final Logger log = LoggerFactory.getLogger(TieredCacheAdapter.class);
+
+    private final CachePort<T, ID> l1;
+    private final CachePort<T, ID> l2; // null when no shared cache is configured
+    private final Duration l1MaxTtl;
+
+    public TieredCacheAdapter(CachePort<T, ID> l1, CachePort<T, ID> l2, Duration l1MaxTtl) {
+        this.l1 = l1; this.l2 = l2; this.l1MaxTtl = l1MaxTtl;
+    }
+
+    @Override public Optional<T> get(ID id) {
+        Optional<T> hit = l1.get(id);
+        if (hit.isPresent() || l2 == null) return hit;
+        try {
+            hit = l2.get(id);
+        } catch (RuntimeException e) {
+            log.warn("L2 cache get failed for {}: {}", id, e.toString());
+            return Optional.empty();
+        }
+        hit.ifPresent(v -> l1.put(id, v, l1MaxTtl));
+        return hit;
+    }
+
+    @Override public void put(ID id, T value, Duration ttl) {
+        l1.put(id, value, ttl.compareTo(l1MaxTtl) < 0 ? ttl : l1MaxTtl);
+        if (l2 == null) return;
+        try {
+            l2.put(id, value, ttl);
+        } catch (RuntimeException e) {
+            log.warn("L2 cache put failed for {}: {}", id, e.toString());
+        }
+    }
+
+    @Override public Map<ID, T> getAll(Collection<ID> ids) {
+        Map<ID, T> hits = new HashMap<>(l1.getAll(ids));
+        if (l2 == null || hits.size() == ids.size()) return hits;
+        List<ID> missing = ids.stream().filter(id -> !hits.containsKey(id)).toList();
+        try {
+            Map<ID, T> shared = l2.getAll(missing);
+            l1.putAll(shared, l1MaxTtl);
+            hits.putAll(shared);
+        } catch (RuntimeException e) {
+            log.warn("L2 cache getAll failed for {} keys: {}", missing.size(), e.toString());
+        }
+        return hits;
+    }
+
+    @Override public void putAll(Map<ID, T> values, Duration ttl) {
+        if (values.isEmpty()) return;
+        l1.putAll(values, ttl.compareTo(l1MaxTtl) < 0 ? ttl : l1MaxTtl);
+        if (l2 == null) return;
+        try {
+            l2.putAll(values, ttl);
+        } catch (RuntimeException e) {
+            log.warn("L2 cache putAll failed for {} keys: {}", values.size(), e.toString());
+        }
+    }
+
+    @Override public void evict(ID id) {
+        l1.evict(id);
+        if (l2 == null) return;
+        try {
+            l2.evict(id);
+        } catch (RuntimeException e) {
+            log.warn("L2 cache evict failed for {}: {}", id, e.toString());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+// common-adapters/.../facet/ProductFacetIndex.java
+package com.souk.common.adapters.facet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.souk.common.adapters.jpa.EntityChangedEvent;
+import com.souk.common.adapters.jpa.IndexBuildBuffer;
+import com.souk.common.domain.Product;
+import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.ProductFacetPort;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet -> value -> RoaringBitmap of product ids. Filtering is bitmap AND/OR,
+ * counting is {@code andCardinality} against each value bitmap, so neither
+ * touches the database. Kept current from {@link EntityChangedEvent}s after a
+ * background build on startup; events that arrive during the build are applied after it. Only where {@code product.indexes.enabled} is set.
+ */
+@Component
+@ConditionalOnProperty(value = "product.indexes.enabled", havingValue = "true")
+public class ProductFacetIndex implements ProductFacetPort {
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+    private static final int REBUILD_BATCH = 500;
+
+    // categoryDetails keys as stored by the admin UI / products.sql check constraint
+    private static final Map<String, String> CATEGORY_KEYS = Map.of(
+            "cuisine", "cuisinename",
+            "category", "category",
+            "subcategory", "subcategory",
+            "region", "regioncategory");
+
+    private final DataAccessPort<Product, Long> products;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<String, RoaringBitmap>> postings = new HashMap<>();
+    private final Map<Integer, Map<String, String>> valuesByDoc = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final IndexBuildBuffer changes = new IndexBuildBuffer(this::apply);
+    private volatile boolean ready;
+
+    public ProductFacetIndex(DataAccessPort<Product, Long> products) {
+        this.products = products;
+        FACETS.forEach(f -> postings.put(f, new HashMap<>()));
+    }
+
+    @Override public boolean isReady() { return ready; }
+
+    @Override
+    public FacetResult query(Map<String, List<String>> filters, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap match = all.clone();
+            for (Map.Entry<String, List<String>> f : filters.entrySet()) {
+                Map<String, RoaringBitmap> byValue = postings.get(f.getKey());
+                if (byValue == null || f.getValue() == null || f.getValue().isEmpty()) continue;
+                RoaringBitmap any = new RoaringBitmap();
+                for (String v : f.getValue()) {
+                    RoaringBitmap bm = byValue.get(normalize(v));
+                    if (bm != null) any.or(bm);
+                }
+                match.and(any);
+            }
+
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                Map<String, Long> c = new TreeMap<>();
+                postings.get(facet).forEach((value, bm) -> {
+                    long n = RoaringBitmap.andCardinality(match, bm);
+                    if (n > 0) c.put(value, n);
+                });
+                counts.put(facet, c);
+            }
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, match.getCardinality()));
+            PeekableIntIterator it = match.getIntIterator();
+            if (afterId != null) it.advanceIfNeeded(Math.toIntExact(afterId) + 1);
+            while (it.hasNext() && ids.size() < limit) ids.add((long) it.next());
+            Long next = it.hasNext() && !ids.isEmpty() ? ids.get(ids.size() - 1) : null;
+
+            return new FacetResult(ids, match.getLongCardinality(), next, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent e) {
+        if (e.isFor(Product.class)) changes.accept(e);
+    }
+
+    private void apply(EntityChangedEvent e) {
+        if (e.isDelete()) remove(Math.toIntExact((Long) e.id()));
+        else put((Product) e.entity());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread t = new Thread(this::rebuild, "facet-index-product");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            changes.build(() -> products.forEachBatch(REBUILD_BATCH, batch -> batch.forEach(this::put)));
+            ready = true;
+            log.info("Product facet index built: {} docs in {} ms", all.getCardinality(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.warn("Product facet index build failed: {}", e.toString());
+        }
+    }
+
+    private void put(Product p) {
+        int id = Math.toIntExact(p.getId());
+        Map<String, String> values = facetValues(p);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            values.forEach((facet, v) -> postings.get(facet).computeIfAbsent(v, k -> new RoaringBitmap()).add(id));
+            valuesByDoc.put(id, values);
+            all.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        Map<String, String> old = valuesByDoc.remove(id);
+        all.remove(id);
+        if (old == null) return;
+        old.forEach((facet, v) -> {
+            RoaringBitmap bm = postings.get(facet).get(v);
+            if (bm == null) return;
+            bm.remove(id);
+            if (bm.isEmpty()) postings.get(facet).remove(v);
+        });
+    }
+
+    private static Map<String, String> facetValues(Product p) {
+        Map<String, String> out = new HashMap<>();
+        JsonNode details = p.getCategoryDetails();
+        if (details != null && details.isObject()) {
+            details.properties().forEach(f -> CATEGORY_KEYS.forEach((facet, key) -> {
+                if (f.getKey().equalsIgnoreCase(key) && f.getValue().isValueNode() && !f.getValue().asText().isBlank()) {
+                    out.put(facet, normalize(f.getValue().asText()));
+                }
+            }));
+        }
+        if (p.getVendorId() != null) out.put("vendorId", String.valueOf(p.getVendorId()));
+        if (p.getAvailable() != null) out.put("available", String.valueOf(p.getAvailable()));
+        return out;
+    }
+
+    private static String normalize(String v) {
+        return v == null ? null : v.trim().toLowerCase(Locale.ROOT);
+    }
+}
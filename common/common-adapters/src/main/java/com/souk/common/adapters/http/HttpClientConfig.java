@@ -0,0 +1,28 @@
+// common-adapters/.../http/HttpClientConfig.java
+package com.souk.common.adapters.http;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * One outbound {@link HttpClient} per process. The client owns a connection pool, so
+ * sharing it lets repeated fetches from a host reuse connections and TLS sessions
+ * instead of paying a handshake each time; HTTP/2 is negotiated where the server offers
+ * it (falling back to HTTP/1.1), multiplexing concurrent requests over one connection.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public HttpClient httpClient(@Value("${http.client.connect-timeout:10s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+}
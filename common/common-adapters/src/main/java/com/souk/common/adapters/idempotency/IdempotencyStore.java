@@ -0,0 +1,155 @@
+// common-adapters/.../idempotency/IdempotencyStore.java
+package com.souk.common.adapters.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.souk.common.adapters.jpa.repository.IdempotencyRecordRepository;
+import com.souk.common.port.IdempotencyPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link IdempotencyPort} with three layers: a bounded map of in-flight executions
+ * (duplicates arriving meanwhile join the same future), a bounded Caffeine cache of
+ * recent responses, and the {@code idempotency_keys} table for retries that land
+ * later or on another instance. Expired rows are purged opportunistically.
+ * <p>
+ * The table is what makes the key exclusive. An execution first claims it with a
+ * plain INSERT of a pending row, runs the action in the same transaction and fills
+ * the response in before committing; a failed action rolls the claim back with its
+ * own writes. A duplicate on another instance blocks on that row's key until the
+ * first transaction ends, then fails on the primary key and replays the stored
+ * response.
+ */
+@Component
+public class IdempotencyStore implements IdempotencyPort {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final IdempotencyRecordRepository repo;
+    private final TransactionTemplate tx;
+    private final Duration ttl;
+    private final int maxInFlight;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, StoredResponse> recent;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    public IdempotencyStore(IdempotencyRecordRepository repo,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.max-in-flight:10000}") int maxInFlight,
+                            @Value("${idempotency.local-cache-size:10000}") long localCacheSize) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.maxInFlight = maxInFlight;
+        this.recent = Caffeine.newBuilder().maximumSize(localCacheSize).expireAfterWrite(ttl).build();
+    }
+
+    @Override
+    public Result execute(String scope, String key, String requestHash, Supplier<StoredResponse> action) {
+        String id = scope + ":" + key;
+        StoredResponse cached = recent.getIfPresent(id);
+        if (cached != null) return new Result(cached, true);
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) return new Result(await(running), true);
+        // over the bound the request still runs, it just isn't joinable by in-process duplicates
+        if (inFlight.size() > maxInFlight) inFlight.remove(id, mine);
+
+        try {
+            Optional<StoredResponse> stored = load(id);
+            if (stored.isPresent()) {
+                recent.put(id, stored.get());
+                mine.complete(stored.get());
+                return new Result(stored.get(), true);
+            }
+            StoredResponse response = claimAndRun(id, requestHash, action);
+            if (response == null) {
+                // claimed elsewhere; the claim only failed once that transaction had ended
+                StoredResponse other = load(id).orElseThrow(() -> new InProgress(id));
+                recent.put(id, other);
+                mine.complete(other);
+                return new Result(other, true);
+            }
+            if (response.status() / 100 == 2) {
+                recent.put(id, response);
+                purgeIfDue();
+            }
+            mine.complete(response);
+            return new Result(response, false);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    /** The action's response, or null when the key is already claimed by another execution. */
+    private StoredResponse claimAndRun(String id, String requestHash, Supplier<StoredResponse> action) {
+        return tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                repo.deleteIfExpired(id, now);
+                repo.claim(id, requestHash, now, now.plus(ttl));
+            } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+                status.setRollbackOnly();
+                return null;
+            }
+            StoredResponse response = action.get();
+            if (response.status() / 100 == 2) {
+                repo.complete(id, response.status(), response.body());
+            } else {
+                // nothing is kept for failures, so a retry runs the action again
+                status.setRollbackOnly();
+            }
+            return response;
+        });
+    }
+
+    private Optional<StoredResponse> load(String id) {
+        LocalDateTime now = LocalDateTime.now();
+        return repo.findById(id)
+                .filter(r -> r.getStatusCode() != null && r.getExpiresAt().isAfter(now))
+                .map(r -> new StoredResponse(r.getRequestHash(), r.getStatusCode(), r.getResponseBody()));
+    }
+
+    private void purgeIfDue() {
+        long last = lastPurge.get();
+        long millis = System.currentTimeMillis();
+        if (millis - last < PURGE_INTERVAL_MILLIS || !lastPurge.compareAndSet(last, millis)) return;
+        try {
+            int purged = repo.deleteExpired(LocalDateTime.now());
+            if (purged > 0) log.debug("Purged {} expired idempotency keys", purged);
+        } catch (RuntimeException e) {
+            log.warn("Could not purge expired idempotency keys: {}", e.toString());
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
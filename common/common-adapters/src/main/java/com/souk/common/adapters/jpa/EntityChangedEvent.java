@@ -0,0 +1,20 @@
+// common-adapters/.../jpa/EntityChangedEvent.java
+package com.souk.common.adapters.jpa;
+
+/**
+ * Published by {@link JpaDataAccessAdapter} after every save / deleteById so
+ * in-process derived views (search, facets, table versions, ...) can update incrementally.
+ * {@code entity} is null for deletes. {@code remote} events are replayed from the change
+ * feed by {@code ChangeFeedFollower} for writes that may have been made on another
+ * instance; they carry the row as it is now and must not be recorded again.
+ */
+public record EntityChangedEvent(Class<?> entityType, Object id, Object entity, boolean remote) {
+
+    public EntityChangedEvent(Class<?> entityType, Object id, Object entity) {
+        this(entityType, id, entity, false);
+    }
+
+    public boolean isDelete() { return entity == null; }
+
+    public boolean isFor(Class<?> type) { return entityType == type; }
+}
@@ -0,0 +1,61 @@
+// common-adapters/.../jpa/IndexBuildBuffer.java
+package com.souk.common.adapters.jpa;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Holds back an in-memory index's {@link EntityChangedEvent}s while its startup scan runs,
+ * so a row the scan read before a later write or delete committed cannot overwrite that
+ * change. Only the newest event per id is kept, and they are applied once the scan is
+ * done. Events are held from construction, as the scan only starts once the application
+ * is ready.
+ */
+public final class IndexBuildBuffer {
+
+    private final Consumer<EntityChangedEvent> apply;
+    private Map<Object, EntityChangedEvent> pending = new LinkedHashMap<>();
+
+    public IndexBuildBuffer(Consumer<EntityChangedEvent> apply) {
+        this.apply = apply;
+    }
+
+    /** Applies the event now, or keeps it until the running scan is done */
+    public void accept(EntityChangedEvent e) {
+        synchronized (this) {
+            if (pending != null) {
+                pending.put(e.id(), e);
+                return;
+            }
+        }
+        apply.accept(e);
+    }
+
+    /** Runs the scan with events held back, then applies whatever arrived meanwhile, even if it failed */
+    public void build(Runnable scan) {
+        synchronized (this) {
+            if (pending == null) pending = new LinkedHashMap<>();
+        }
+        try {
+            scan.run();
+        } finally {
+            drain();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Map<Object, EntityChangedEvent> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    pending = null;
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+            batch.values().forEach(apply);
+        }
+    }
+}
@@ -1,20 +1,272 @@
 // common-adapters/.../jpa/JpaDataAccessAdapter.java
 package com.souk.common.adapters.jpa;
 
+import com.souk.common.domain.OutboxEvent;
+import com.souk.common.domain.OutboxEvent.Operation;
 import com.souk.common.port.DataAccessPort;
-import org.springframework.data.domain.PageRequest;
+import com.souk.common.port.DataAccessPort.WriteResult.Status;
+import com.souk.common.port.KeysetPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.core.ResolvableType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-public class JpaDataAccessAdapter<T, ID> implements DataAccessPort<T, ID> {
+public class JpaDataAccessAdapter<T, ID> implements DataAccessPort<T, ID>, ApplicationEventPublisherAware {
     private final JpaRepository<T, ID> repo;
+    private ApplicationEventPublisher events;
 
-    public JpaDataAccessAdapter(JpaRepository<T, ID> repo) { this.repo = repo; }
+    @PersistenceContext
+    private EntityManager em;
 
-    @Override public T save(T e) { return repo.save(e); }
+    private final Class<T> entityClass;
+
+    @SuppressWarnings("unchecked")
+    public JpaDataAccessAdapter(JpaRepository<T, ID> repo) {
+        this.repo = repo;
+        this.entityClass = (Class<T>) ResolvableType.forClass(getClass())
+                .as(JpaDataAccessAdapter.class).resolveGeneric(0);
+    }
+
+    @Override public void setApplicationEventPublisher(ApplicationEventPublisher events) { this.events = events; }
+
+    @Override
+    @Transactional
+    public T save(T e) {
+        T saved = repo.save(e);
+        recordChange(idOf(saved), Operation.UPSERT);
+        publish(idOf(saved), saved);
+        return saved;
+    }
+    @Override
+    @Transactional
+    public List<T> saveAll(Collection<T> entities) {
+        List<T> saved = repo.saveAll(entities);
+        for (T e : saved) {
+            recordChange(idOf(e), Operation.UPSERT);
+            publish(idOf(e), e);
+        }
+        return saved;
+    }
     @Override public Optional<T> findById(ID id) { return repo.findById(id); }
     @Override public List<T> findAll() { return repo.findAll(); }
+    @Override public List<T> findAllById(Collection<ID> ids) { return ids.isEmpty() ? List.of() : repo.findAllById(ids); }
+
+    @Override
+    @Transactional
+    public void deleteById(ID id) {
+        repo.deleteById(id);
+        recordChange(id, Operation.DELETE);
+        publish(id, null);
+    }
+
+    @Override
+    @Transactional
+    public WriteResult<T> updateIfVersion(ID id, Long expectedVersion, Map<String, ?> changes) {
+        EntityType<T> type = em.getMetamodel().entity(entityClass);
+        String version = versionAttribute(type, expectedVersion);
+        Query q = em.createQuery("UPDATE " + type.getName() + " e SET " + assignments(type, changes) +
+                " WHERE e." + idAttribute() + " = :id" + (expectedVersion != null ? " AND e." + version + " = :version" : ""));
+        bind(q, changes).setParameter("id", id);
+        if (expectedVersion != null) q.setParameter("version", expectedVersion);
+        if (q.executeUpdate() == 0) return WriteResult.of(missed(type, id, expectedVersion));
+
+        T written = reload(id);
+        recordChange(id, Operation.UPSERT);
+        publish(id, written);
+        return new WriteResult<>(Status.APPLIED, written);
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<ID> updateWhere(String attribute, Object value, Map<String, ?> changes) {
+        EntityType<T> type = em.getMetamodel().entity(entityClass);
+        type.getAttribute(attribute);
+        String id = idAttribute();
+        // the ids pin the set, so rows matching only after this point are neither updated nor reported
+        List<ID> ids = (List<ID>) em.createQuery("SELECT e." + id + " FROM " + type.getName() + " e WHERE e." + attribute + " = :value")
+                .setParameter("value", value)
+                .getResultList();
+        if (ids.isEmpty()) return ids;
+
+        Query q = em.createQuery("UPDATE " + type.getName() + " e SET " + assignments(type, changes) +
+                " WHERE e." + id + " IN :ids");
+        bind(q, changes).setParameter("ids", ids).executeUpdate();
+
+        for (ID changed : ids) recordChange(changed, Operation.UPSERT);
+        if (events != null) {
+            for (ID changed : ids) em.detach(em.getReference(entityClass, changed));
+            for (T e : repo.findAllById(ids)) publish(idOf(e), e);
+        }
+        return ids;
+    }
+
+    @Override
+    @Transactional
+    public WriteResult<T> deleteIfVersion(ID id, Long expectedVersion) {
+        EntityType<T> type = em.getMetamodel().entity(entityClass);
+        String version = versionAttribute(type, expectedVersion);
+        Query q = em.createQuery("DELETE FROM " + type.getName() + " e WHERE e." + idAttribute() + " = :id" +
+                (expectedVersion != null ? " AND e." + version + " = :version" : ""));
+        q.setParameter("id", id);
+        if (expectedVersion != null) q.setParameter("version", expectedVersion);
+        if (q.executeUpdate() == 0) return WriteResult.of(missed(type, id, expectedVersion));
+
+        // a copy loaded earlier in this persistence context must not be flushed against the deleted row
+        em.detach(em.getReference(entityClass, id));
+        recordChange(id, Operation.DELETE);
+        publish(id, null);
+        return WriteResult.of(Status.APPLIED);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public KeysetPage<T, ID> findPage(ID afterId, int limit, Direction sort) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> q = cb.createQuery(entityClass);
+        Root<T> root = q.from(entityClass);
+        Path<Comparable> id = root.get(idAttribute());
+
+        if (afterId != null) {
+            q.where(sort == Direction.DESC
+                    ? cb.lessThan(id, (Comparable) afterId)
+                    : cb.greaterThan(id, (Comparable) afterId));
+        }
+        q.orderBy(sort == Direction.DESC ? cb.desc(id) : cb.asc(id));
+
+        List<T> rows = em.createQuery(q).setMaxResults(limit).getResultList();
+        ID next = rows.size() == limit ? idOf(rows.get(rows.size() - 1)) : null;
+        return new KeysetPage<>(rows, next);
+    }
+
+    /** The ids of one keyset page, for adapters that load the rows with their own fetch plan. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected List<ID> findPageIds(ID afterId, int limit, Direction sort) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Object> q = cb.createQuery();
+        Root<T> root = q.from(entityClass);
+        Path<Comparable> id = root.get(idAttribute());
+
+        q.select(id);
+        if (afterId != null) {
+            q.where(sort == Direction.DESC
+                    ? cb.lessThan(id, (Comparable) afterId)
+                    : cb.greaterThan(id, (Comparable) afterId));
+        }
+        q.orderBy(sort == Direction.DESC ? cb.desc(id) : cb.asc(id));
+        return (List<ID>) (List<?>) em.createQuery(q).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(int fetchSize, Consumer<? super T> sink) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> q = cb.createQuery(entityClass);
+        Root<T> root = q.from(entityClass);
+        q.orderBy(cb.asc(root.get(idAttribute())));
+
+        try (Stream<T> rows = em.createQuery(q)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            int n = 0;
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                sink.accept(it.next());
+                // drop the chunk from the persistence context so memory stays flat
+                if (++n % fetchSize == 0) em.clear();
+            }
+        }
+    }
+
+    /** Outbox row written in the caller's transaction, so it commits (or not) with the write. */
+    protected void recordChange(ID id, Operation op) {
+        OutboxEvent e = new OutboxEvent();
+        e.setEntityType(entityClass.getSimpleName());
+        e.setEntityId(String.valueOf(id));
+        e.setOperation(op);
+        e.setCreatedAt(LocalDateTime.now());
+        em.persist(e);
+    }
+
+    /** Name of the {@code @Version} attribute; required only when a version is to be matched. */
+    private String versionAttribute(EntityType<T> type, Long expectedVersion) {
+        for (SingularAttribute<? super T, ?> a : type.getSingularAttributes()) {
+            if (a.isVersion()) return a.getName();
+        }
+        if (expectedVersion != null) throw new IllegalStateException(type.getName() + " has no @Version attribute");
+        return null;
+    }
+
+    /** SET clause for {@code changes}, plus the version bump when the entity has one. */
+    private String assignments(EntityType<T> type, Map<String, ?> changes) {
+        List<String> sets = new ArrayList<>();
+        int i = 0;
+        for (String attribute : changes.keySet()) {
+            type.getAttribute(attribute); // rejects unknown names before they reach the query text
+            sets.add("e." + attribute + " = :p" + i++);
+        }
+        String version = versionAttribute(type, null);
+        if (version != null) sets.add("e." + version + " = e." + version + " + 1");
+        if (sets.isEmpty()) throw new IllegalArgumentException("Nothing to update on " + type.getName());
+        return String.join(", ", sets);
+    }
+
+    private static Query bind(Query q, Map<String, ?> changes) {
+        int i = 0;
+        for (Object value : changes.values()) q.setParameter("p" + i++, value);
+        return q;
+    }
+
+    /** Why a conditional statement touched no row; only costs a query when a version was given. */
+    private Status missed(EntityType<T> type, ID id, Long expectedVersion) {
+        if (expectedVersion == null) return Status.NOT_FOUND;
+        Long rows = em.createQuery("SELECT COUNT(e) FROM " + type.getName() + " e WHERE e." + idAttribute() + " = :id", Long.class)
+                .setParameter("id", id)
+                .getSingleResult();
+        return rows > 0 ? Status.CONFLICT : Status.NOT_FOUND;
+    }
+
+    /**
+     * The row as the bulk statement left it, loaded with the repository's fetch plan so it
+     * is usable detached like any findById result. Bulk statements bypass the persistence
+     * context, so a copy already managed there is dropped first rather than reused.
+     */
+    private T reload(ID id) {
+        em.detach(em.getReference(entityClass, id));
+        return repo.findById(id).orElseThrow();
+    }
+
+    protected void publish(ID id, T entity) {
+        if (events != null) events.publishEvent(new EntityChangedEvent(entityClass, id, entity));
+    }
+
+    protected EntityManager entityManager() { return em; }
+
+    protected Class<T> entityClass() { return entityClass; }
+
+    protected String idAttribute() {
+        EntityType<T> type = em.getMetamodel().entity(entityClass);
+        return type.getId(type.getIdType().getJavaType()).getName();
+    }
 
-    @Override public void deleteById(ID id) { repo.deleteById(id); }
+    @SuppressWarnings("unchecked")
+    protected ID idOf(T entity) {
+        return (ID) em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
 }
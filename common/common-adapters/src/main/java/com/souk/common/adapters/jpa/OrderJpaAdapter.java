@@ -2,15 +2,50 @@ package com.souk.common.adapters.jpa;
 
 import com.souk.common.domain.Order;
 import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.KeysetPage;
 import com.souk.common.adapters.jpa.repository.OrderRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Pages and exports load orders with their customer, address and items in two
+ * queries per page (keyset ids, then one fetch-joined load) instead of one
+ * query per order for the lazy items.
+ */
 @Component
 public class OrderJpaAdapter extends JpaDataAccessAdapter<Order, Long>
         implements DataAccessPort<Order, Long> {
 
+    private final OrderRepository repo;
+
     public OrderJpaAdapter(OrderRepository repo) {
         super(repo);
+        this.repo = repo;
     }
-}
 
+    @Override
+    public KeysetPage<Order, Long> findPage(Long afterId, int limit, Direction sort) {
+        List<Long> ids = findPageIds(afterId, limit, sort);
+        if (ids.isEmpty()) return new KeysetPage<>(List.of(), null);
+
+        Map<Long, Order> byId = new HashMap<>();
+        for (Order o : repo.findAllById(ids)) byId.put(o.getId(), o);
+        List<Order> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Order o = byId.get(id);
+            if (o != null) rows.add(o);
+        }
+        return new KeysetPage<>(rows, ids.size() == limit ? ids.get(ids.size() - 1) : null);
+    }
+
+    // a single cursor would still load each order's items lazily, so walk keyset pages instead
+    @Override
+    public void streamAll(int fetchSize, Consumer<? super Order> sink) {
+        forEachBatch(fetchSize, batch -> batch.forEach(sink));
+    }
+}
@@ -1,12 +1,24 @@
 package com.souk.common.adapters.jpa;
 import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.KeysetPage;
 import com.souk.common.port.ProductQueryPort;
 import com.souk.common.domain.Product;
 import org.springframework.stereotype.Component;
 import com.souk.common.adapters.jpa.repository.ProductRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+/**
+ * Pages and exports load products with their media in two queries per page (keyset
+ * ids, then one fetch-joined load), like {@link OrderJpaAdapter}, instead of one media
+ * query per product.
+ */
 @Component
 public class ProductJpaAdapter extends JpaDataAccessAdapter<Product, Long>
         implements DataAccessPort<Product, Long>, ProductQueryPort {
@@ -18,8 +30,34 @@ public class ProductJpaAdapter extends JpaDataAccessAdapter<Product, Long>
         this.repo = repo;
     }
 
+    @Override
+    public KeysetPage<Product, Long> findPage(Long afterId, int limit, Direction sort) {
+        List<Long> ids = findPageIds(afterId, limit, sort);
+        if (ids.isEmpty()) return new KeysetPage<>(List.of(), null);
+
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product p : repo.findAllById(ids)) byId.put(p.getId(), p);
+        List<Product> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product p = byId.get(id);
+            if (p != null) rows.add(p);
+        }
+        return new KeysetPage<>(rows, ids.size() == limit ? ids.get(ids.size() - 1) : null);
+    }
+
+    // a cursor would touch each product's lazy media while its result set is still open
+    @Override
+    public void streamAll(int fetchSize, Consumer<? super Product> sink) {
+        forEachBatch(fetchSize, batch -> batch.forEach(sink));
+    }
+
     @Override
     public Optional<Product> findBySku(String sku) {
         return repo.findBySku(sku);
     }
+
+    @Override
+    public List<Product> findAllBySku(Collection<String> skus) {
+        return skus.isEmpty() ? List.of() : repo.findBySkuIn(skus);
+    }
 }
@@ -1,16 +1,87 @@
 package com.souk.common.adapters.jpa;
 
+import com.souk.common.domain.Product;
 import com.souk.common.domain.ProductMedia;
 import com.souk.common.port.DataAccessPort;
 import com.souk.common.adapters.jpa.repository.ProductMediaRepository;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * A product's media are part of its representation, so every media write also bumps the
+ * owning product's version (through {@link ProductJpaAdapter}, which records and publishes
+ * it like any product update). Product ETags, the product collection's table version and
+ * the product cache all follow media changes that way. The product row is bumped first:
+ * the media row's foreign key check takes a shared lock on it, and two writers upgrading
+ * that lock the other way round would deadlock.
+ */
 @Component
 public class ProductMediaJpaAdapter extends JpaDataAccessAdapter<ProductMedia, Long>
         implements DataAccessPort<ProductMedia, Long> {
 
-    public ProductMediaJpaAdapter(ProductMediaRepository repo) {
+    private final ProductMediaRepository repo;
+    private final ProductJpaAdapter products;
+
+    public ProductMediaJpaAdapter(ProductMediaRepository repo, ProductJpaAdapter products) {
         super(repo);
+        this.repo = repo;
+        this.products = products;
+    }
+
+    @Override
+    @Transactional
+    public ProductMedia save(ProductMedia media) {
+        touch(media.getProduct() != null ? List.of(media.getProduct().getId()) : List.of());
+        return super.save(media);
+    }
+
+    @Override
+    @Transactional
+    public List<ProductMedia> saveAll(Collection<ProductMedia> entities) {
+        touch(entities.stream().map(ProductMedia::getProduct).filter(Objects::nonNull).map(Product::getId).toList());
+        return super.saveAll(entities);
+    }
+
+    @Override
+    @Transactional
+    public void deleteById(Long id) {
+        touch(repo.findProductIdsByIds(List.of(id)));
+        super.deleteById(id);
     }
-}
 
+    @Override
+    @Transactional
+    public WriteResult<ProductMedia> updateIfVersion(Long id, Long expectedVersion, Map<String, ?> changes) {
+        touch(repo.findProductIdsByIds(List.of(id)));
+        return super.updateIfVersion(id, expectedVersion, changes);
+    }
+
+    @Override
+    @Transactional
+    public List<Long> updateWhere(String attribute, Object value, Map<String, ?> changes) {
+        // the rows are only known afterwards; updating them takes no lock on the product rows
+        List<Long> changed = super.updateWhere(attribute, value, changes);
+        touch(changed.isEmpty() ? List.of() : repo.findProductIdsByIds(changed));
+        return changed;
+    }
+
+    @Override
+    @Transactional
+    public WriteResult<ProductMedia> deleteIfVersion(Long id, Long expectedVersion) {
+        touch(repo.findProductIdsByIds(List.of(id)));
+        return super.deleteIfVersion(id, expectedVersion);
+    }
+
+    /** Version bump of each owning product, in id order so concurrent writers lock them alike. */
+    private void touch(Collection<Long> productIds) {
+        for (Long productId : new TreeSet<>(productIds)) {
+            if (productId != null) products.updateIfVersion(productId, null, Map.of());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.souk.common.adapters.jpa;
+
+import com.souk.common.adapters.jpa.repository.StockLedgerRepository;
+import com.souk.common.port.StockLedgerPort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * {@link StockLedgerPort} as conditional SQL updates. Each call commits in its own
+ * short transaction so the slot's row lock is held for one statement, not for the
+ * whole checkout.
+ */
+@Component
+public class StockLedgerJpaAdapter implements StockLedgerPort {
+    private final StockLedgerRepository repo;
+
+    public StockLedgerJpaAdapter(StockLedgerRepository repo) {
+        this.repo = repo;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean reserve(Long productId, LocalDate date, LocalTime slotStart, int capacity, int quantity) {
+        if (quantity <= 0) return true;
+        if (repo.reserve(productId, date, slotStart, quantity) == 1) return true;
+        // first reservation for this slot: create the row, then retry once
+        repo.createIfAbsent(productId, date, slotStart, capacity);
+        return repo.reserve(productId, date, slotStart, quantity) == 1;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(Long productId, LocalDate date, LocalTime slotStart, int quantity) {
+        if (quantity > 0) repo.release(productId, date, slotStart, quantity);
+    }
+}
@@ -0,0 +1,79 @@
+package com.souk.common.adapters.jpa;
+
+import com.souk.common.adapters.jpa.repository.StockLedgerRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Repairs the stock ledger after a crash. Reservations commit ahead of their order and
+ * releases after it, each compensated in-process; a process dying in between leaves a
+ * slot counting units no order holds, or missing units one does. Every pass recounts
+ * upcoming slots that have been idle for {@code stock.reconcile.idle} from the order
+ * lines themselves, which an order transaction never outlives.
+ */
+@Component
+@ConditionalOnProperty(value = "stock.reconcile.enabled", havingValue = "true")
+public class StockLedgerReconciler {
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerReconciler.class);
+
+    private final StockLedgerRepository repo;
+    private final TransactionTemplate tx;
+    private final Duration interval;
+    private final Duration idle;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("stock-reconcile"));
+
+    public StockLedgerReconciler(StockLedgerRepository repo,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${stock.reconcile.interval:5m}") Duration interval,
+                                 @Value("${stock.reconcile.idle:10m}") Duration idle) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.interval = interval;
+        this.idle = idle;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::reconcile, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void reconcile() {
+        try {
+            Integer n = tx.execute(status -> repo.reconcile(LocalDate.now(), LocalDateTime.now().minus(idle)));
+            if (n != null && n > 0) log.debug("Recounted {} idle stock ledger slots", n);
+        } catch (RuntimeException e) {
+            log.warn("Stock ledger reconcile failed: {}", e.toString());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
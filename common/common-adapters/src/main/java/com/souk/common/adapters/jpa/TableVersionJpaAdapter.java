@@ -0,0 +1,91 @@
+package com.souk.common.adapters.jpa;
+
+import com.souk.common.domain.TableVersion;
+import com.souk.common.port.TableVersionPort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Primary-key read of {@code table_versions}; a type that was never written is at version 0.
+ * <p>
+ * The counters are bumped after the write commits, once per written type and transaction,
+ * each in its own single-statement transaction. Bumping inside the write would make one
+ * row per type a lock that every write of that type holds until commit.
+ */
+@Component
+public class TableVersionJpaAdapter implements TableVersionPort {
+    private static final Logger log = LoggerFactory.getLogger(TableVersionJpaAdapter.class);
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate bumpTx;
+
+    public TableVersionJpaAdapter(PlatformTransactionManager transactionManager) {
+        this.bumpTx = new TransactionTemplate(transactionManager);
+        // the write's own transaction is still bound while its synchronizations run
+        this.bumpTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public long version(Class<?> entityType) {
+        TableVersion v = em.find(TableVersion.class, entityType.getSimpleName());
+        return v != null ? v.getVersion() : 0L;
+    }
+
+    /** Published inside the write's transaction by {@link JpaDataAccessAdapter}. */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent e) {
+        // the instance that made the write has bumped it already
+        if (e.remote()) return;
+        String type = e.entityType().getSimpleName();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(type);
+            return;
+        }
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            if (s instanceof PendingBumps pending) {
+                pending.types.add(type);
+                return;
+            }
+        }
+        PendingBumps pending = new PendingBumps();
+        pending.types.add(type);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    private void bump(String type) {
+        try {
+            bumpTx.executeWithoutResult(status -> em.createNativeQuery(
+                            "INSERT INTO table_versions (entity_type, version) VALUES (?1, 1) " +
+                                    "ON DUPLICATE KEY UPDATE version = version + 1")
+                    .setParameter(1, type)
+                    .executeUpdate());
+        } catch (RuntimeException ex) {
+            // the write is committed either way; the collection ETag catches up with the next one
+            log.warn("Table version bump for {} failed: {}", type, ex.toString());
+        }
+    }
+
+    /** Types written in one transaction; a transaction's synchronizations are hidden from the ones it suspends. */
+    private final class PendingBumps implements TransactionSynchronization {
+        final Set<String> types = new TreeSet<>();
+
+        @Override
+        public void afterCommit() {
+            for (String type : types) bump(type);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.souk.common.adapters.jpa.repository;
+
+import com.souk.common.domain.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // a plain insert, so a second claim of the key fails on the primary key (or waits for the first to finish)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (record_key, request_hash, status_code, response_body, created_at, expires_at) " +
+            "VALUES (:key, :hash, NULL, NULL, :now, :expiresAt)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("hash") String requestHash,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.statusCode = :status, r.responseBody = :body where r.recordKey = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("body") String body);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.recordKey = :key and r.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
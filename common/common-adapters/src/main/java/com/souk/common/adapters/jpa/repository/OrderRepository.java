@@ -1,9 +1,21 @@
 package com.souk.common.adapters.jpa.repository;
 
 import com.souk.common.domain.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {}
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    // everything OrderResponse walks is fetched in the same query, so results work detached
+    @Override
+    @EntityGraph(attributePaths = {"customer", "address", "items"})
+    Optional<Order> findById(Long id);
 
+    @Override
+    @EntityGraph(attributePaths = {"customer", "address", "items"})
+    List<Order> findAllById(Iterable<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.souk.common.adapters.jpa.repository;
+
+import com.souk.common.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // locks the head of the queue, so relays on several instances take turns instead of double-publishing
+    @Query(value = "SELECT * FROM outbox_events WHERE feed_position IS NULL ORDER BY event_id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<OutboxEvent> lockUnpublished(@Param("limit") int limit);
+
+    @Query("select coalesce(max(e.feedPosition), 0) from OutboxEvent e")
+    long maxFeedPosition();
+
+    List<OutboxEvent> findByFeedPositionGreaterThanOrderByFeedPositionAsc(Long feedPosition, Pageable page);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :before and e.feedPosition < :keep")
+    int deletePublishedBefore(@Param("before") LocalDateTime before, @Param("keep") long keepPosition);
+}
@@ -1,9 +1,33 @@
 package com.souk.common.adapters.jpa.repository;
 
 import com.souk.common.domain.ProductMedia;
+import com.souk.common.domain.ProductMedia.ValidationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ProductMediaRepository extends JpaRepository<ProductMedia, Long> {}
+public interface ProductMediaRepository extends JpaRepository<ProductMedia, Long> {
+
+    @Query("select m.id from ProductMedia m where m.validationStatus = :status and m.id > :after order by m.id")
+    List<Long> findIdsByStatusAfter(@Param("status") ValidationStatus status, @Param("after") long after, Pageable page);
+
+    long countByValidationStatus(ValidationStatus status);
+
+    @Query("select m.mediaUrl from ProductMedia m where m.product.id in :productIds")
+    List<String> findUrlsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("select distinct m.product.id from ProductMedia m where m.id in :ids")
+    List<Long> findProductIdsByIds(@Param("ids") Collection<Long> ids);
+
+    /** Media rows sharing one stored file; the file's reference count */
+    long countByMediaUrl(String mediaUrl);
 
+    @Query("select distinct m.mediaUrl from ProductMedia m where m.mediaUrl in :urls")
+    List<String> findReferencedUrls(@Param("urls") Collection<String> urls);
+}
@@ -1,12 +1,27 @@
 package com.souk.common.adapters.jpa.repository;
 
 import com.souk.common.domain.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // media is loaded eagerly on single lookups so the result is usable (and cacheable) detached
+    @Override
+    @EntityGraph(attributePaths = "media")
+    Optional<Product> findById(Long id);
+
+    @EntityGraph(attributePaths = "media")
     Optional<Product> findBySku(String sku);
+
+    List<Product> findBySkuIn(Collection<String> skus);
+
+    @Override
+    @EntityGraph(attributePaths = "media")
+    List<Product> findAllById(Iterable<Long> ids);
 }
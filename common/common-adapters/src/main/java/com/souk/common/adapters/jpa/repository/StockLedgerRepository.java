@@ -0,0 +1,51 @@
+package com.souk.common.adapters.jpa.repository;
+
+import com.souk.common.domain.StockLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Repository
+public interface StockLedgerRepository extends JpaRepository<StockLedger, StockLedger.Key> {
+
+    // capacity is fixed by the reservation that creates the slot's row
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO stock_ledger (product_id, slot_date, slot_start, capacity, reserved, updated_at) " +
+            "VALUES (:productId, :date, :slotStart, :capacity, 0, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int createIfAbsent(@Param("productId") Long productId, @Param("date") LocalDate date,
+                       @Param("slotStart") LocalTime slotStart, @Param("capacity") int capacity);
+
+    // the check and the increment are one statement
+    @Modifying
+    @Query(value = "UPDATE stock_ledger SET reserved = reserved + :quantity, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE product_id = :productId AND slot_date = :date AND slot_start = :slotStart " +
+            "AND reserved + :quantity <= capacity", nativeQuery = true)
+    int reserve(@Param("productId") Long productId, @Param("date") LocalDate date,
+                @Param("slotStart") LocalTime slotStart, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query(value = "UPDATE stock_ledger SET reserved = GREATEST(reserved - :quantity, 0), updated_at = CURRENT_TIMESTAMP " +
+            "WHERE product_id = :productId AND slot_date = :date AND slot_start = :slotStart", nativeQuery = true)
+    int release(@Param("productId") Long productId, @Param("date") LocalDate date,
+                @Param("slotStart") LocalTime slotStart, @Param("quantity") int quantity);
+
+    /**
+     * Recounts {@code reserved} from the order lines that hold the slot, for upcoming slots
+     * untouched since {@code idleSince}. A reservation or release in flight updates the row
+     * first, which keeps it out of this statement.
+     */
+    @Modifying
+    @Query(value = "UPDATE stock_ledger l SET l.reserved = (" +
+            "SELECT COALESCE(SUM(COALESCE(i.quantity, 1)), 0) FROM order_items i JOIN orders o ON o.order_id = i.order_id " +
+            "WHERE i.product_id = l.product_id AND i.reserved_slot_start = l.slot_start " +
+            "AND COALESCE(i.requested_delivery_date, o.requested_delivery_date) = l.slot_date " +
+            "AND o.status NOT IN ('CANCELLED', 'REFUNDED')) " +
+            "WHERE l.slot_date >= :today AND l.updated_at < :idleSince", nativeQuery = true)
+    int reconcile(@Param("today") LocalDate today, @Param("idleSince") LocalDateTime idleSince);
+}
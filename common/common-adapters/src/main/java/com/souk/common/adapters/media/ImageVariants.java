@@ -0,0 +1,317 @@
+// common-adapters/.../media/ImageVariants.java
+package com.souk.common.adapters.media;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Downscaled copies of uploaded images at a fixed set of widths. A variant is rendered
+ * once and stored in a {@code variants/} directory next to the original, named after a
+ * hash of the original's bytes, so a replaced original can never be served stale variants.
+ * <p>
+ * Large originals are decoded with source subsampling, so only about twice the target
+ * resolution is held in memory. Rendering runs on a small private pool, and concurrent
+ * requests for the same variant share one render. Formats ImageIO cannot decode (WebP,
+ * AVIF, HEIC) and originals no wider than the requested width are served unchanged.
+ */
+@Component
+@ConditionalOnProperty(value = "media.variants.enabled", havingValue = "true")
+public class ImageVariants {
+    private static final Logger log = LoggerFactory.getLogger(ImageVariants.class);
+    private static final String VARIANTS_DIR = "variants";
+    private static final Pattern SAFE_SEGMENT = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final int MAX_TRACKED_FILES = 10_000;
+
+    /** A file to serve for a variant request; {@code etag} is derived from the original's content. */
+    public record Variant(Path file, String contentType, String etag) {}
+
+    private record Fingerprint(long modified, long size, String hash) {}
+
+    private final Path uploadsDir;
+    private final Set<Integer> widths;
+    private final float jpegQuality;
+    private final ExecutorService renderers;
+    private final Cache<Path, Fingerprint> hashes = Caffeine.newBuilder().maximumSize(MAX_TRACKED_FILES).build();
+    // originals a variant would not shrink, or that ImageIO cannot decode
+    private final Cache<String, Boolean> passthrough = Caffeine.newBuilder().maximumSize(MAX_TRACKED_FILES).build();
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<Variant>>> rendering = new ConcurrentHashMap<>();
+
+    public ImageVariants(@Value("${media.uploads-dir:${user.home}/souk-uploads}") String uploadsDir,
+                         @Value("${media.variants.widths:160,480,1080}") List<Integer> widths,
+                         @Value("${media.variants.jpeg-quality:0.82}") float jpegQuality,
+                         @Value("${media.variants.threads:2}") int threads) {
+        this.uploadsDir = Path.of(uploadsDir).toAbsolutePath().normalize();
+        this.widths = new TreeSet<>(widths);
+        this.jpegQuality = jpegQuality;
+        this.renderers = Executors.newFixedThreadPool(threads, daemonThreads("image-variants"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        renderers.shutdownNow();
+    }
+
+    public boolean supportsWidth(int width) {
+        return widths.contains(width);
+    }
+
+    /**
+     * The uploaded file at {@code segments} under the uploads directory, if it exists.
+     * Segments must be plain names, so a request cannot climb out of the directory.
+     */
+    public Optional<Path> upload(String... segments) {
+        Path p = uploadsDir;
+        for (String s : segments) {
+            if (!SAFE_SEGMENT.matcher(s).matches()) return Optional.empty();
+            p = p.resolve(s);
+        }
+        return Files.isRegularFile(p) ? Optional.of(p) : Optional.empty();
+    }
+
+    /**
+     * The {@code width} variant of {@code original}, rendering it on first use; the
+     * original itself when no smaller image can be made.
+     *
+     * @throws IllegalArgumentException if {@code width} is not a configured variant width
+     */
+    public Variant variant(Path original, int width) throws IOException {
+        if (!supportsWidth(width)) throw new IllegalArgumentException("Unsupported variant width " + width);
+        String hash = contentHash(original);
+        String key = hash + "-w" + width;
+        if (passthrough.getIfPresent(key) == null) {
+            Path dir = original.resolveSibling(VARIANTS_DIR);
+            for (String ext : new String[]{"jpg", "png"}) {
+                Path stored = dir.resolve(key + "." + ext);
+                if (Files.exists(stored)) return new Variant(stored, "image/" + (ext.equals("jpg") ? "jpeg" : ext), quoted(key));
+            }
+            CompletableFuture<Optional<Variant>> mine = new CompletableFuture<>();
+            String target = dir.resolve(key).toString();
+            CompletableFuture<Optional<Variant>> running = rendering.putIfAbsent(target, mine);
+            if (running == null) {
+                renderers.execute(() -> {
+                    try {
+                        mine.complete(render(original, dir, key, width));
+                    } catch (IOException e) {
+                        mine.completeExceptionally(new UncheckedIOException(e));
+                    } catch (RuntimeException | Error e) {
+                        mine.completeExceptionally(e);
+                    } finally {
+                        rendering.remove(target, mine);
+                    }
+                });
+                running = mine;
+            }
+            Optional<Variant> rendered = await(running);
+            if (rendered.isPresent()) return rendered.get();
+            passthrough.put(key, Boolean.TRUE);
+        }
+        String type;
+        try (InputStream in = Files.newInputStream(original)) {
+            MediaProbe.Result probed = MediaProbe.probe(in);
+            type = probed != null ? probed.mimeType() : "application/octet-stream";
+        }
+        return new Variant(original, type, quoted(hash));
+    }
+
+    /** Renders every configured width of {@code original} ahead of the first request; failures are only logged. */
+    public void renderAll(Path original) {
+        for (int width : widths) {
+            try {
+                variant(original, width);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not render w{} of {}: {}", width, original, e.toString());
+            }
+        }
+    }
+
+    /**
+     * Deletes the variants in {@code dir}'s {@code variants/} directory that belong to no
+     * original still in {@code dir}, and the directory itself once it is empty.
+     */
+    public void prune(Path dir) throws IOException {
+        Path variantsDir = dir.resolve(VARIANTS_DIR);
+        if (!Files.isDirectory(variantsDir)) return;
+        Set<String> live = new HashSet<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) live.add(contentHash(f));
+        }
+        try (Stream<Path> variants = Files.list(variantsDir)) {
+            for (Path v : (Iterable<Path>) variants::iterator) {
+                String name = v.getFileName().toString();
+                int cut = name.indexOf("-w");
+                if (!live.contains(cut > 0 ? name.substring(0, cut) : name)) Files.deleteIfExists(v);
+            }
+        }
+        try (Stream<Path> left = Files.list(variantsDir)) {
+            if (left.findAny().isEmpty()) Files.deleteIfExists(variantsDir);
+        }
+    }
+
+    // ------------------------------------------------------------
+
+    /** Empty when the original is not wider than {@code width} or not decodable. */
+    private Optional<Variant> render(Path original, Path dir, String key, int width) throws IOException {
+        BufferedImage source;
+        try (ImageInputStream iis = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : null;
+            if (readers == null || !readers.hasNext()) return Optional.empty();
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int sourceWidth = reader.getWidth(0);
+                if (sourceWidth <= width) return Optional.empty();
+                ImageReadParam param = reader.getDefaultReadParam();
+                // decode every n-th pixel, keeping at least twice the target width for a clean downscale
+                int step = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage scaled = scale(source, width, height, alpha);
+
+        Files.createDirectories(dir);
+        Path target = dir.resolve(key + (alpha ? ".png" : ".jpg"));
+        Path tmp = Files.createTempFile(dir, key, ".tmp");
+        try {
+            if (alpha) ImageIO.write(scaled, "png", tmp.toFile());
+            else writeJpeg(scaled, tmp);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return Optional.of(new Variant(target, alpha ? "image/png" : "image/jpeg", quoted(key)));
+    }
+
+    /** Halves until within 2x of the target, then one bilinear step: close to area averaging, much cheaper. */
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int w = source.getWidth(), h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /** SHA-256 of the file, remembered while its size and modification time stay the same. */
+    private String contentHash(Path file) throws IOException {
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        long size = Files.size(file);
+        Fingerprint known = hashes.getIfPresent(file);
+        if (known != null && known.modified() == modified && known.size() == size) return known.hash();
+
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), sha)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String hash = HexFormat.of().formatHex(sha.digest(), 0, 16);
+        hashes.put(file, new Fingerprint(modified, size, hash));
+        return hash;
+    }
+
+    private static String quoted(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+    private static <V> V await(CompletableFuture<V> f) throws IOException {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
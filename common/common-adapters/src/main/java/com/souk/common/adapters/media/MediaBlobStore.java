@@ -0,0 +1,170 @@
+// common-adapters/.../media/MediaBlobStore.java
+package com.souk.common.adapters.media;
+
+import com.souk.common.adapters.jpa.repository.ProductMediaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for uploaded media. An upload is streamed once into a temp
+ * file under {@code blobs/} while its SHA-256 is computed and its first bytes are kept
+ * for {@link MediaProbe}; it is then moved to {@link UploadLayout#blobFile}, or dropped
+ * when that content is already stored. Every {@code ProductMedia} row carrying the same
+ * bytes therefore points at one file.
+ * <p>
+ * A blob's reference count is the number of media rows with its URL, so rows removed by
+ * a cascading product delete are counted as well as explicit deletes. Storing a duplicate
+ * refreshes the blob's modification time, and nothing touched within {@code orphan-grace}
+ * is deleted: a blob that just gained a reference whose row is not committed yet is safe.
+ */
+@Component
+public class MediaBlobStore {
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final int SNIFF_BYTES = 64 * 1024;
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "image/avif", "avif",
+            "image/heic", "heic",
+            "video/mp4", "mp4",
+            "video/quicktime", "mov",
+            "video/webm", "webm",
+            "video/x-matroska", "mkv");
+
+    /** A stored upload; {@code detected} is null when the format was not recognised. */
+    public record Stored(String url, Path file, String sha256, long size, MediaProbe.Result detected, boolean deduplicated) {}
+
+    /** The upload exceeded {@code media.upload.max-size}; nothing was stored. */
+    public static class TooLarge extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public TooLarge(long limit) {
+            super("Upload exceeds " + limit + " bytes");
+        }
+    }
+
+    private final ProductMediaRepository repo;
+    private final Path uploadsDir;
+    private final Path blobsDir;
+    private final long maxSize;
+    private final Duration grace;
+
+    public MediaBlobStore(ProductMediaRepository repo,
+                          @Value("${media.uploads-dir:${user.home}/souk-uploads}") String uploadsDir,
+                          @Value("${media.upload.max-size:200MB}") DataSize maxSize,
+                          @Value("${media.disk.orphan-grace:1h}") Duration grace) {
+        this.repo = repo;
+        this.uploadsDir = Path.of(uploadsDir).toAbsolutePath().normalize();
+        this.blobsDir = this.uploadsDir.resolve(UploadLayout.BLOBS);
+        this.maxSize = maxSize.toBytes();
+        this.grace = grace;
+    }
+
+    /**
+     * Streams {@code in} into the store (without closing it).
+     *
+     * @throws TooLarge when the stream is longer than {@code media.upload.max-size}
+     */
+    public Stored store(InputStream in) throws IOException {
+        Files.createDirectories(blobsDir);
+        Path tmp = Files.createTempFile(blobsDir, "upload", ".part");
+        try {
+            MessageDigest sha = sha256();
+            byte[] head = new byte[SNIFF_BYTES];
+            int headLength = 0;
+            long size = 0;
+            byte[] buf = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                for (int n; (n = in.read(buf)) != -1; ) {
+                    size += n;
+                    if (size > maxSize) throw new TooLarge(maxSize);
+                    sha.update(buf, 0, n);
+                    if (headLength < head.length) {
+                        int keep = Math.min(n, head.length - headLength);
+                        System.arraycopy(buf, 0, head, headLength, keep);
+                        headLength += keep;
+                    }
+                    out.write(buf, 0, n);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(sha.digest());
+            MediaProbe.Result detected = sniff(head, headLength);
+            String ext = detected != null ? EXTENSIONS.getOrDefault(detected.mimeType(), "bin") : "bin";
+            String relative = UploadLayout.blobFile(hash, ext);
+            Path target = uploadsDir.resolve(relative);
+            boolean existed = Files.exists(target);
+            if (existed) {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+            } else {
+                Files.createDirectories(target.getParent());
+                // a concurrent upload of the same bytes may win the race; the content is identical
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new Stored(UPLOADS_PREFIX + relative, target, hash, size, detected, existed);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** The blob file behind a media URL, when the URL names one. */
+    public Optional<Path> blob(String url) {
+        if (url == null || !url.startsWith(UPLOADS_PREFIX + UploadLayout.BLOBS + "/")) return Optional.empty();
+        Path file = uploadsDir.resolve(url.substring(UPLOADS_PREFIX.length())).normalize();
+        return file.startsWith(blobsDir) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Drops a reference to the blob at {@code url}: deletes the file once no media row points
+     * at it and it has not been reused within the grace period. Returns whether it was deleted;
+     * blobs still within the grace period are left for the disk sweep.
+     */
+    public boolean release(String url) throws IOException {
+        Optional<Path> file = blob(url);
+        if (file.isEmpty() || repo.countByMediaUrl(url) > 0) return false;
+        try {
+            if (Files.getLastModifiedTime(file.get()).toMillis() > System.currentTimeMillis() - grace.toMillis()) return false;
+        } catch (NoSuchFileException gone) {
+            return false;
+        }
+        return Files.deleteIfExists(file.get());
+    }
+
+    // ------------------------------------------------------------
+
+    private static MediaProbe.Result sniff(byte[] head, int length) {
+        try {
+            return MediaProbe.probe(new ByteArrayInputStream(head, 0, length));
+        } catch (IOException e) {
+            // a prefix cut short inside a header; the validation pass reads the whole file
+            return null;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+// common-adapters/.../media/MediaDiskJanitor.java
+package com.souk.common.adapters.media;
+
+import com.souk.common.adapters.jpa.repository.ProductMediaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the uploads directory bounded. Each pass:
+ * <ul>
+ *   <li>trims {@code previews/} to {@code preview-quota}, least recently fetched first
+ *       (a fetch refreshes the file's modification time), down to 90% of the quota so
+ *       the next few downloads don't trigger another trim;</li>
+ *   <li>deletes originals under {@code products/} that no media row points at any more
+ *       (deleted media, deleted products), then the variants rendered from them;</li>
+ *   <li>deletes {@link MediaBlobStore} blobs whose reference count has dropped to zero
+ *       without a {@link MediaBlobStore#release} seeing it, as after a product delete.</li>
+ * </ul>
+ * Files younger than {@code orphan-grace} are left alone, so an upload whose row is not
+ * committed yet, or a download still being written, is never taken for garbage.
+ */
+@Component
+@ConditionalOnProperty(value = "media.disk.enabled", havingValue = "true")
+public class MediaDiskJanitor {
+    private static final Logger log = LoggerFactory.getLogger(MediaDiskJanitor.class);
+    private static final String VARIANTS_DIR = "variants";
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final int PRODUCTS_PER_QUERY = 200;
+    private static final int BLOBS_PER_QUERY = 500;
+
+    private final ProductMediaRepository repo;
+    private final ObjectProvider<ImageVariants> variants;
+    private final Path uploadsDir;
+    private final long previewQuota;
+    private final Duration sweepInterval;
+    private final Duration orphanGrace;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("media-disk-janitor"));
+
+    private volatile long previewBytes;
+    private volatile long previewFiles;
+    private volatile long lastSweepMillis;
+    private final LongAdder previewsEvicted = new LongAdder();
+    private final LongAdder orphansDeleted = new LongAdder();
+
+    public MediaDiskJanitor(ProductMediaRepository repo,
+                            ObjectProvider<ImageVariants> variants,
+                            @Value("${media.uploads-dir:${user.home}/souk-uploads}") String uploadsDir,
+                            @Value("${media.disk.preview-quota:2GB}") DataSize previewQuota,
+                            @Value("${media.disk.sweep-interval:10m}") Duration sweepInterval,
+                            @Value("${media.disk.orphan-grace:1h}") Duration orphanGrace) {
+        this.repo = repo;
+        this.variants = variants;
+        this.uploadsDir = Path.of(uploadsDir).toAbsolutePath().normalize();
+        this.previewQuota = previewQuota.toBytes();
+        this.sweepInterval = sweepInterval;
+        this.orphanGrace = orphanGrace;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sweep, sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** Preview usage against the quota and what the passes so far removed. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("previewBytes", previewBytes);
+        out.put("previewQuotaBytes", previewQuota);
+        out.put("previewFiles", previewFiles);
+        out.put("previewsEvicted", previewsEvicted.sum());
+        out.put("orphansDeleted", orphansDeleted.sum());
+        out.put("lastSweepMillis", lastSweepMillis);
+        return out;
+    }
+
+    void sweep() {
+        try {
+            trimPreviews();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Preview trim failed: {}", e.toString());
+        }
+        try {
+            sweepOrphans();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Orphan media sweep failed: {}", e.toString());
+        }
+        try {
+            sweepBlobs();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Media blob sweep failed: {}", e.toString());
+        }
+        lastSweepMillis = System.currentTimeMillis();
+    }
+
+    // ------------------------------------------------------------
+
+    private record Cached(Path file, long size, long lastAccess) {}
+
+    private void trimPreviews() throws IOException {
+        Path root = uploadsDir.resolve(UploadLayout.PREVIEWS);
+        if (!Files.isDirectory(root)) return;
+        long cutoff = System.currentTimeMillis() - orphanGrace.toMillis();
+        List<Cached> files = new ArrayList<>();
+        long[] total = {0};
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                long modified = attrs.lastModifiedTime().toMillis();
+                if (file.getFileName().toString().endsWith(PARTIAL_SUFFIX)) {
+                    // left behind by a download that died with the process
+                    if (modified < cutoff) Files.deleteIfExists(file);
+                } else if (attrs.isRegularFile()) {
+                    files.add(new Cached(file, attrs.size(), modified));
+                    total[0] += attrs.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        long used = total[0];
+        int count = files.size();
+        if (used > previewQuota) {
+            long target = previewQuota / 10 * 9;
+            files.sort(Comparator.comparingLong(Cached::lastAccess));
+            for (Cached c : files) {
+                if (used <= target) break;
+                if (Files.deleteIfExists(c.file())) {
+                    used -= c.size();
+                    count--;
+                    previewsEvicted.increment();
+                }
+            }
+        }
+        previewBytes = used;
+        previewFiles = count;
+    }
+
+    /** Walks products/ (sharded or not) and checks each product directory's files against its media rows. */
+    private void sweepOrphans() throws IOException {
+        Path root = uploadsDir.resolve(UploadLayout.PRODUCTS);
+        if (!Files.isDirectory(root)) return;
+        Map<Long, Path> batch = new LinkedHashMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.getFileName().toString().equals(VARIANTS_DIR) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            // after the directory's own entries, so deleting them cannot upset the walk
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Long productId = productId(dir);
+                if (productId != null && e == null) {
+                    batch.put(productId, dir);
+                    if (batch.size() == PRODUCTS_PER_QUERY) flush(batch);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        flush(batch);
+    }
+
+    private void flush(Map<Long, Path> batch) throws IOException {
+        if (batch.isEmpty()) return;
+        Set<String> referenced = new HashSet<>(repo.findUrlsByProductIds(batch.keySet()));
+        long cutoff = System.currentTimeMillis() - orphanGrace.toMillis();
+        for (Path dir : batch.values()) {
+            List<Path> files = originals(dir);
+            boolean deleted = false;
+            for (Path f : files) {
+                if (referenced.contains(urlOf(f)) || Files.getLastModifiedTime(f).toMillis() >= cutoff) continue;
+                if (Files.deleteIfExists(f)) {
+                    orphansDeleted.increment();
+                    deleted = true;
+                }
+            }
+            if (!deleted) continue;
+            ImageVariants v = variants.getIfAvailable();
+            if (v != null) v.prune(dir);
+            try (Stream<Path> left = Files.list(dir)) {
+                if (left.findAny().isEmpty()) Files.deleteIfExists(dir);
+            }
+        }
+        batch.clear();
+    }
+
+    /** Walks blobs/ and deletes the blobs no media row references, in batches of one query each. */
+    private void sweepBlobs() throws IOException {
+        Path root = uploadsDir.resolve(UploadLayout.BLOBS);
+        if (!Files.isDirectory(root)) return;
+        long cutoff = System.currentTimeMillis() - orphanGrace.toMillis();
+        Map<String, Path> batch = new LinkedHashMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.getFileName().toString().equals(VARIANTS_DIR) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                // a blob reused within the grace period may have a reference that is not committed yet
+                if (!attrs.isRegularFile() || attrs.lastModifiedTime().toMillis() >= cutoff) return FileVisitResult.CONTINUE;
+                if (file.getFileName().toString().endsWith(PARTIAL_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    batch.put(urlOf(file), file);
+                    if (batch.size() == BLOBS_PER_QUERY) flushBlobs(batch, cutoff);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        flushBlobs(batch, cutoff);
+    }
+
+    private void flushBlobs(Map<String, Path> batch, long cutoff) throws IOException {
+        if (batch.isEmpty()) return;
+        batch.keySet().removeAll(repo.findReferencedUrls(batch.keySet()));
+        Set<Path> dirs = new HashSet<>();
+        for (Path blob : batch.values()) {
+            try {
+                // checked again: an upload may have reused it since the walk saw it
+                if (Files.getLastModifiedTime(blob).toMillis() >= cutoff || !Files.deleteIfExists(blob)) continue;
+            } catch (NoSuchFileException released) {
+                continue;
+            }
+            orphansDeleted.increment();
+            dirs.add(blob.getParent());
+        }
+        ImageVariants v = variants.getIfAvailable();
+        if (v != null) {
+            for (Path dir : dirs) v.prune(dir);
+        }
+        batch.clear();
+    }
+
+    /** A directory holding a product's uploads is named after the product and holds files directly. */
+    private static Long productId(Path dir) throws IOException {
+        String name = dir.getFileName().toString();
+        if (name.isEmpty() || name.length() > 18 || !name.chars().allMatch(Character::isDigit)) return null;
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.anyMatch(Files::isRegularFile) ? Long.valueOf(name) : null;
+        }
+    }
+
+    private static List<Path> originals(Path dir) throws IOException {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private String urlOf(Path file) {
+        return "/uploads/" + uploadsDir.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
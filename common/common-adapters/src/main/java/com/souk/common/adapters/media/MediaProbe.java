@@ -0,0 +1,252 @@
+// common-adapters/.../media/MediaProbe.java
+package com.souk.common.adapters.media;
+
+import com.souk.common.domain.ProductMedia.MediaType;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Identifies a media file from its magic bytes and reads its dimensions (and, for MP4 /
+ * QuickTime, its duration) from the container headers. Segments and boxes that are not
+ * needed are skipped, never decoded, so a local file is read for a few hundred bytes
+ * however large it is. Dimensions stay null when the input ends before they appear.
+ */
+public final class MediaProbe {
+    private static final int SIGNATURE_BYTES = 64;
+    private static final Map<String, String> MIME_ALIASES = Map.of(
+            "image/jpg", "image/jpeg",
+            "image/pjpeg", "image/jpeg",
+            "image/heif", "image/heic",
+            "video/x-m4v", "video/mp4",
+            "audio/webm", "video/webm");
+
+    public record Result(String mimeType, MediaType mediaType, Integer width, Integer height, Integer durationSeconds) {
+        public String resolution() {
+            return width != null && height != null ? width + "x" + height : null;
+        }
+    }
+
+    private MediaProbe() {}
+
+    /** The detected format, or null if the bytes match none of the supported ones. */
+    public static Result probe(InputStream raw) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(raw, SIGNATURE_BYTES);
+        byte[] head = pushback.readNBytes(SIGNATURE_BYTES);
+        pushback.unread(head);
+        DataInputStream in = new DataInputStream(pushback);
+
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return image("image/png", in, MediaProbe::png);
+        if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) return image("image/jpeg", in, MediaProbe::jpeg);
+        if (startsWith(head, 0, 'G', 'I', 'F', '8') && head.length >= 10) {
+            return new Result("image/gif", MediaType.IMAGE, u16le(head, 6), u16le(head, 8), null);
+        }
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'E', 'B', 'P')) {
+            return image("image/webp", in, MediaProbe::webp);
+        }
+        if (startsWith(head, 4, 'f', 't', 'y', 'p') && head.length >= 12) {
+            String brand = new String(head, 8, 4, StandardCharsets.US_ASCII);
+            switch (brand) {
+                case "avif", "avis": return new Result("image/avif", MediaType.IMAGE, null, null, null);
+                case "heic", "heix", "mif1": return new Result("image/heic", MediaType.IMAGE, null, null, null);
+                default: return isoMedia(brand.equals("qt  ") ? "video/quicktime" : "video/mp4", in);
+            }
+        }
+        if (startsWith(head, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            // EBML header; the DocType element near the start says which Matroska flavour
+            String docType = new String(head, StandardCharsets.ISO_8859_1).contains("webm") ? "video/webm" : "video/x-matroska";
+            return new Result(docType, MediaType.VIDEO, null, null, null);
+        }
+        return null;
+    }
+
+    /** Lower-cased MIME type without parameters, with common aliases folded onto one name. */
+    public static String normalizeMime(String mime) {
+        if (mime == null) return null;
+        int semi = mime.indexOf(';');
+        String m = (semi >= 0 ? mime.substring(0, semi) : mime).trim().toLowerCase(Locale.ROOT);
+        return MIME_ALIASES.getOrDefault(m, m);
+    }
+
+    // ------------------------------------------------------------
+
+    private interface Dimensions { int[] read(DataInputStream in) throws IOException; }
+
+    private static Result image(String mime, DataInputStream in, Dimensions dims) throws IOException {
+        int[] wh;
+        try {
+            wh = dims.read(in);
+        } catch (EOFException truncated) {
+            wh = null;
+        }
+        return new Result(mime, MediaType.IMAGE, wh != null ? wh[0] : null, wh != null ? wh[1] : null, null);
+    }
+
+    private static int[] png(DataInputStream in) throws IOException {
+        in.skipNBytes(12); // signature, IHDR length
+        if (in.readInt() != 0x49484452) return null; // "IHDR" must come first
+        return new int[]{in.readInt(), in.readInt()};
+    }
+
+    private static int[] jpeg(DataInputStream in) throws IOException {
+        in.skipNBytes(2); // SOI
+        while (true) {
+            if (in.readUnsignedByte() != 0xFF) return null;
+            int marker = in.readUnsignedByte();
+            while (marker == 0xFF) marker = in.readUnsignedByte(); // fill bytes
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) continue; // no length field
+            if (marker == 0xD9 || marker == 0xDA) return null; // image data before any frame header
+            int length = in.readUnsignedShort();
+            if (length < 2) return null;
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                in.skipNBytes(1); // sample precision
+                int height = in.readUnsignedShort();
+                return new int[]{in.readUnsignedShort(), height};
+            }
+            in.skipNBytes(length - 2);
+        }
+    }
+
+    private static int[] webp(DataInputStream in) throws IOException {
+        in.skipNBytes(12); // RIFF, size, WEBP
+        byte[] chunk = in.readNBytes(4);
+        in.skipNBytes(4); // chunk size
+        switch (new String(chunk, StandardCharsets.US_ASCII)) {
+            case "VP8 ": {
+                in.skipNBytes(6); // frame tag, start code
+                byte[] b = in.readNBytes(4);
+                if (b.length < 4) throw new EOFException();
+                return new int[]{u16le(b, 0) & 0x3FFF, u16le(b, 2) & 0x3FFF};
+            }
+            case "VP8L": {
+                in.skipNBytes(1); // signature
+                byte[] b = in.readNBytes(4);
+                if (b.length < 4) throw new EOFException();
+                long bits = (b[0] & 0xFFL) | (b[1] & 0xFFL) << 8 | (b[2] & 0xFFL) << 16 | (b[3] & 0xFFL) << 24;
+                return new int[]{(int) (bits & 0x3FFF) + 1, (int) ((bits >> 14) & 0x3FFF) + 1};
+            }
+            case "VP8X": {
+                in.skipNBytes(4); // flags, reserved
+                byte[] b = in.readNBytes(6);
+                if (b.length < 6) throw new EOFException();
+                return new int[]{u24le(b, 0) + 1, u24le(b, 3) + 1};
+            }
+            default:
+                return null;
+        }
+    }
+
+    // ------------------------------------------------------------
+    // ISO base media (MP4 / QuickTime): moov/mvhd for the duration, the first
+    // moov/trak/tkhd with a non-zero size for the dimensions
+
+    private static final int MOOV = box("moov"), TRAK = box("trak"), MVHD = box("mvhd"), TKHD = box("tkhd");
+
+    private static final class IsoInfo {
+        Integer width, height, durationSeconds;
+        boolean moovSeen;
+    }
+
+    private static Result isoMedia(String mime, DataInputStream in) throws IOException {
+        IsoInfo info = new IsoInfo();
+        try {
+            while (!info.moovSeen) {
+                long[] header = boxHeader(in);
+                if (header == null) break;
+                long content = header[1];
+                if ((int) header[0] == MOOV) {
+                    info.moovSeen = true;
+                    walk(in, content, info);
+                } else if (content < 0) {
+                    break; // runs to end of file and isn't moov
+                } else {
+                    in.skipNBytes(content); // mdat and friends: a seek, not a read, on local files
+                }
+            }
+        } catch (EOFException truncated) {
+            // fields found so far are kept
+        }
+        return new Result(mime, MediaType.VIDEO, info.width, info.height, info.durationSeconds);
+    }
+
+    private static void walk(DataInputStream in, long length, IsoInfo info) throws IOException {
+        long remaining = length;
+        while (remaining >= 8) {
+            long[] header = boxHeader(in);
+            if (header == null) return;
+            long content = header[1] < 0 ? remaining - header[2] : header[1];
+            remaining -= header[2] + content;
+            int type = (int) header[0];
+            if (type == TRAK) {
+                walk(in, content, info);
+            } else if (type == MVHD) {
+                int version = in.readUnsignedByte();
+                in.skipNBytes(3 + (version == 1 ? 16 : 8)); // flags, creation and modification times
+                long timescale = in.readInt() & 0xFFFFFFFFL;
+                long duration = version == 1 ? in.readLong() : in.readInt() & 0xFFFFFFFFL;
+                if (timescale > 0) info.durationSeconds = (int) Math.round((double) duration / timescale);
+                in.skipNBytes(content - (version == 1 ? 32 : 20));
+            } else if (type == TKHD) {
+                int version = in.readUnsignedByte();
+                int fixed = 3 + (version == 1 ? 32 : 20) + 52; // flags, times, track id, duration, layer .. matrix
+                in.skipNBytes(fixed);
+                int width = in.readInt() >>> 16, height = in.readInt() >>> 16; // 16.16 fixed point
+                if (info.width == null && width > 0 && height > 0) {
+                    info.width = width;
+                    info.height = height;
+                }
+                in.skipNBytes(content - 1 - fixed - 8);
+            } else {
+                in.skipNBytes(content);
+            }
+        }
+        if (remaining > 0) in.skipNBytes(remaining);
+    }
+
+    /** {type, content length (-1 = to end of file), header length}, or null at a clean end of input. */
+    private static long[] boxHeader(DataInputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) return null;
+        byte[] rest = in.readNBytes(7);
+        if (rest.length < 7) throw new EOFException();
+        long size = (first & 0xFFL) << 24 | (rest[0] & 0xFFL) << 16 | (rest[1] & 0xFFL) << 8 | (rest[2] & 0xFFL);
+        int type = (rest[3] & 0xFF) << 24 | (rest[4] & 0xFF) << 16 | (rest[5] & 0xFF) << 8 | (rest[6] & 0xFF);
+        if (size == 1) {
+            long large = in.readLong();
+            if (large < 16) throw new EOFException();
+            return new long[]{type, large - 16, 16};
+        }
+        if (size == 0) return new long[]{type, -1, 8};
+        if (size < 8) throw new EOFException();
+        return new long[]{type, size - 8, 8};
+    }
+
+    private static int box(String fourcc) {
+        byte[] b = fourcc.getBytes(StandardCharsets.US_ASCII);
+        return (b[0] & 0xFF) << 24 | (b[1] & 0xFF) << 16 | (b[2] & 0xFF) << 8 | (b[3] & 0xFF);
+    }
+
+    // ------------------------------------------------------------
+
+    private static boolean startsWith(byte[] head, int offset, int... signature) {
+        if (head.length < offset + signature.length) return false;
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[offset + i] & 0xFF) != signature[i]) return false;
+        }
+        return true;
+    }
+
+    private static int u16le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int u24le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16;
+    }
+}
@@ -0,0 +1,287 @@
+// common-adapters/.../media/MediaValidationWorker.java
+package com.souk.common.adapters.media;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.souk.common.adapters.jpa.repository.ProductMediaRepository;
+import com.souk.common.domain.ProductMedia;
+import com.souk.common.domain.ProductMedia.ValidationStatus;
+import com.souk.common.port.DataAccessPort;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Validates PENDING {@link ProductMedia}: sniffs the format from the file's magic bytes
+ * with {@link MediaProbe}, rejects it when that contradicts the declared MIME type, and
+ * otherwise replaces the client-supplied metadata with what the headers say.
+ * <p>
+ * A poller claims pending ids in batches no larger than the free space in the pool's
+ * bounded queue, so a backlog waits in the table rather than in memory; uploads can
+ * {@link #enqueue} their row to skip the wait. Local files under {@code /uploads/} are
+ * read in place; http(s) URLs are fetched for their first {@code header-bytes} only.
+ * Fetch failures are retried on later passes, up to {@code max-attempts}. Validated local
+ * images get their {@link ImageVariants} rendered before the first listing asks for them.
+ */
+@Component
+@ConditionalOnProperty(value = "media.validation.enabled", havingValue = "true")
+public class MediaValidationWorker {
+    private static final Logger log = LoggerFactory.getLogger(MediaValidationWorker.class);
+    private static final String UPLOADS_PREFIX = "/uploads/";
+    private static final int MAX_TRACKED_RETRIES = 10_000;
+
+    private final ProductMediaRepository repo;
+    private final DataAccessPort<ProductMedia, Long> mediaPort;
+    private final ObjectProvider<ImageVariants> variants;
+    private final Path uploadsDir;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final Duration pollInterval;
+    private final int headerBytes;
+    private final int maxAttempts;
+    private final ThreadPoolExecutor pool;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("media-validation-poll"));
+    private final HttpClient http;
+
+    // ids queued or running, so a poll never hands the same row to two threads
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+    private final Cache<Long, Integer> attempts = Caffeine.newBuilder().maximumSize(MAX_TRACKED_RETRIES).build();
+    private long cursor;
+    private volatile long backlog;
+
+    private final LongAdder validated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    public MediaValidationWorker(ProductMediaRepository repo,
+                                 DataAccessPort<ProductMedia, Long> mediaPort,
+                                 ObjectProvider<ImageVariants> variants,
+                                 HttpClient http,
+                                 @Value("${media.uploads-dir:${user.home}/souk-uploads}") String uploadsDir,
+                                 @Value("${media.validation.threads:4}") int threads,
+                                 @Value("${media.validation.queue-capacity:256}") int queueCapacity,
+                                 @Value("${media.validation.batch-size:64}") int batchSize,
+                                 @Value("${media.validation.poll-interval:5s}") Duration pollInterval,
+                                 @Value("${media.validation.header-bytes:65536}") int headerBytes,
+                                 @Value("${media.validation.max-attempts:3}") int maxAttempts) {
+        this.repo = repo;
+        this.mediaPort = mediaPort;
+        this.variants = variants;
+        this.http = http;
+        this.uploadsDir = Path.of(uploadsDir).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.pollInterval = pollInterval;
+        this.headerBytes = headerBytes;
+        this.maxAttempts = maxAttempts;
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("media-validation"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Queues one media row for validation. Returns false when it is already queued or the
+     * queue is full; either way the row stays PENDING and a later poll picks it up.
+     */
+    public boolean enqueue(Long mediaId) {
+        if (!claimed.add(mediaId)) return false;
+        try {
+            pool.execute(() -> {
+                try {
+                    validate(mediaId);
+                } catch (RuntimeException e) {
+                    log.warn("Media {} validation failed: {}", mediaId, e.toString());
+                } finally {
+                    claimed.remove(mediaId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException full) {
+            claimed.remove(mediaId);
+            deferred.increment();
+            return false;
+        }
+    }
+
+    /** Queue depth, pool activity and outcome counters. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("queued", pool.getQueue().size());
+        out.put("queueCapacity", queueCapacity);
+        out.put("active", pool.getActiveCount());
+        out.put("threads", pool.getMaximumPoolSize());
+        out.put("pendingBacklog", backlog);
+        out.put("validated", validated.sum());
+        out.put("rejected", rejected.sum());
+        out.put("retried", retried.sum());
+        out.put("deferred", deferred.sum());
+        return out;
+    }
+
+    // ------------------------------------------------------------
+
+    /** Tops the queue up from the table, walking the pending ids round-robin so failing rows don't starve the rest. */
+    void poll() {
+        try {
+            backlog = repo.countByValidationStatus(ValidationStatus.PENDING);
+            int free = pool.getQueue().remainingCapacity();
+            if (free == 0 || backlog == 0) return;
+            int limit = Math.min(batchSize, free);
+            List<Long> ids = repo.findIdsByStatusAfter(ValidationStatus.PENDING, cursor, PageRequest.of(0, limit));
+            cursor = ids.size() < limit ? 0 : ids.get(ids.size() - 1);
+            for (Long id : ids) {
+                if (!enqueue(id) && pool.getQueue().remainingCapacity() == 0) break;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Media validation poll failed: {}", e.toString());
+        }
+    }
+
+    private void validate(Long id) {
+        Optional<ProductMedia> found = mediaPort.findById(id);
+        if (found.isEmpty() || found.get().getValidationStatus() != ValidationStatus.PENDING) return;
+        ProductMedia media = found.get();
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        try {
+            MediaProbe.Result detected;
+            Path local = null;
+            String url = media.getMediaUrl();
+            if (url != null && url.startsWith(UPLOADS_PREFIX)) {
+                Path file = uploadsDir.resolve(url.substring(UPLOADS_PREFIX.length())).normalize();
+                if (!file.startsWith(uploadsDir)) {
+                    reject(id, "Media path escapes the uploads directory");
+                    return;
+                }
+                try (InputStream in = Files.newInputStream(file)) {
+                    detected = MediaProbe.probe(in);
+                }
+                changes.put("sizeKb", (int) Math.max(1, Files.size(file) / 1024));
+                local = file;
+            } else if (url != null && (url.startsWith("http://") || url.startsWith("https://"))) {
+                HttpRequest req = HttpRequest.newBuilder(URI.create(url))
+                        .timeout(Duration.ofSeconds(30))
+                        .header("Range", "bytes=0-" + (headerBytes - 1))
+                        .GET()
+                        .build();
+                HttpResponse<InputStream> resp = http.send(req, HttpResponse.BodyHandlers.ofInputStream());
+                byte[] head;
+                try (InputStream body = resp.body()) {
+                    // servers that ignore Range still send no more than we read
+                    head = body.readNBytes(headerBytes);
+                }
+                if (resp.statusCode() >= 500) throw new IOException("Upstream returned " + resp.statusCode());
+                if (resp.statusCode() >= 400) {
+                    reject(id, "Upstream returned " + resp.statusCode());
+                    return;
+                }
+                detected = MediaProbe.probe(new ByteArrayInputStream(head));
+            } else {
+                reject(id, "Unsupported media location: " + url);
+                return;
+            }
+
+            if (detected == null) {
+                reject(id, "Unrecognised or unsupported media format");
+                return;
+            }
+            String declared = MediaProbe.normalizeMime(media.getMimeType());
+            if (declared != null && !declared.equals("application/octet-stream") && !declared.equals(detected.mimeType())) {
+                reject(id, "Declared " + declared + " but the content is " + detected.mimeType());
+                return;
+            }
+            changes.put("mimeType", detected.mimeType());
+            changes.put("mediaType", detected.mediaType());
+            if (detected.width() != null) changes.put("width", detected.width());
+            if (detected.height() != null) changes.put("height", detected.height());
+            if (detected.resolution() != null) changes.put("resolution", detected.resolution());
+            if (detected.durationSeconds() != null) changes.put("durationSeconds", detected.durationSeconds());
+            changes.put("validationStatus", ValidationStatus.VALIDATED);
+            changes.put("validationError", null);
+            mediaPort.updateIfVersion(id, null, changes);
+            attempts.invalidate(id);
+            validated.increment();
+            if (local != null && detected.mediaType() == ProductMedia.MediaType.IMAGE) {
+                Path original = local;
+                variants.ifAvailable(v -> v.renderAll(original));
+            }
+        } catch (NoSuchFileException e) {
+            reject(id, "File not found");
+        } catch (IllegalArgumentException e) {
+            reject(id, "Invalid media URL: " + e.getMessage());
+        } catch (IOException e) {
+            int attempt = attempts.asMap().merge(id, 1, Integer::sum);
+            if (attempt >= maxAttempts) {
+                reject(id, "Could not read media after " + attempt + " attempts: " + e.getMessage());
+            } else {
+                retried.increment();
+                log.debug("Media {} unreadable (attempt {}): {}", id, attempt, e.toString());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reject(Long id, String reason) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("validationStatus", ValidationStatus.REJECTED);
+        changes.put("validationError", reason);
+        mediaPort.updateIfVersion(id, null, changes);
+        attempts.invalidate(id);
+        rejected.increment();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+// common-adapters/.../media/UploadLayout.java
+package com.souk.common.adapters.media;
+
+/**
+ * Where files live under the uploads directory (served as {@code /uploads/...}). New
+ * files fan out through a two-hex-digit shard directory, so no directory grows past a
+ * few hundred entries per shard level however many files there are:
+ * <pre>
+ *   blobs/{first byte of sha-256}/{sha-256}.{ext}  uploaded media, one file per content, plus variants/
+ *   previews/{first byte of url hash}/{hash}.{ext}
+ * </pre>
+ * {@code products/} is a legacy layout that nothing writes any more: uploads from before
+ * deduplication, in {@code products/{id mod 256}/{productId}/} or, older still,
+ * {@code products/{productId}/}. They keep their URLs, and the disk janitor still reads
+ * the tree to remove files no media row points at.
+ */
+public final class UploadLayout {
+    public static final String PRODUCTS = "products";
+    public static final String PREVIEWS = "previews";
+    public static final String BLOBS = "blobs";
+
+    private UploadLayout() {}
+
+    /** Uploaded content with this SHA-256 (hex), relative to the uploads directory. */
+    public static String blobFile(String sha256, String ext) {
+        return BLOBS + "/" + sha256.substring(0, 2) + "/" + sha256 + "." + ext;
+    }
+
+    /** Directory for a preview with this url hash (hex), relative to the uploads directory. */
+    public static String previewDir(String hash) {
+        return PREVIEWS + "/" + hash.substring(0, 2);
+    }
+}
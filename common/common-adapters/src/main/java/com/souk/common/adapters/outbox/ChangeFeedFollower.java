@@ -0,0 +1,133 @@
+// common-adapters/.../outbox/ChangeFeedFollower.java
+package com.souk.common.adapters.outbox;
+
+import com.souk.common.adapters.jpa.EntityChangedEvent;
+import com.souk.common.adapters.jpa.ProductJpaAdapter;
+import com.souk.common.adapters.jpa.VendorJpaAdapter;
+import com.souk.common.adapters.jpa.repository.OutboxEventRepository;
+import com.souk.common.domain.Product;
+import com.souk.common.domain.Vendor;
+import com.souk.common.port.ChangeFeedPort;
+import com.souk.common.port.ChangeFeedPort.Change;
+import com.souk.common.port.DataAccessPort;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Tails the change feed with a cursor of this instance's own, so caches and in-memory
+ * indexes hear about writes made on other instances too. Product and vendor changes are
+ * reloaded (uncached, a batch per type) and republished as remote
+ * {@link EntityChangedEvent}s: the current row, or null once it is gone. The instance's
+ * own writes come back as well and are applied a second time, which is harmless.
+ * <p>
+ * The cursor starts at the head of the feed: what was written before start-up is
+ * already in the startup index builds and absent from the empty caches.
+ */
+@Component
+@ConditionalOnProperty(value = "outbox.follow.enabled", havingValue = "true")
+public class ChangeFeedFollower {
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedFollower.class);
+
+    private final ChangeFeedPort feed;
+    private final OutboxEventRepository repo;
+    private final ApplicationEventPublisher events;
+    private final Map<String, Followed<?>> followed = new HashMap<>();
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("change-feed-follower"));
+    private volatile long cursor;
+
+    /** A followed entity type and how to load its current rows */
+    private record Followed<T>(Class<T> type, DataAccessPort<T, Long> store, Function<T, Long> idOf) {}
+
+    public ChangeFeedFollower(ChangeFeedPort feed,
+                              OutboxEventRepository repo,
+                              ApplicationEventPublisher events,
+                              ProductJpaAdapter products,
+                              VendorJpaAdapter vendors,
+                              @Value("${outbox.follow.batch-size:500}") int batchSize,
+                              @Value("${outbox.follow.poll-interval:1s}") Duration pollInterval) {
+        this.feed = feed;
+        this.repo = repo;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        follow(new Followed<>(Product.class, products, Product::getId));
+        follow(new Followed<>(Vendor.class, vendors, Vendor::getVendorId));
+    }
+
+    private void follow(Followed<?> f) {
+        followed.put(f.type().getSimpleName(), f);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        cursor = repo.maxFeedPosition();
+        scheduler.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** Applies until the feed is caught up; a failed batch is retried from the same cursor next time. */
+    void poll() {
+        try {
+            List<Change> changes;
+            do {
+                changes = feed.since(cursor, batchSize);
+                if (changes.isEmpty()) return;
+                apply(changes);
+                cursor = changes.get(changes.size() - 1).cursor();
+            } while (changes.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Change feed follow failed at cursor {}: {}", cursor, e.toString());
+        }
+    }
+
+    private void apply(List<Change> changes) {
+        Map<String, Set<Long>> idsByType = new HashMap<>();
+        for (Change c : changes) {
+            if (followed.containsKey(c.entityType())) {
+                idsByType.computeIfAbsent(c.entityType(), t -> new LinkedHashSet<>()).add(Long.valueOf(c.entityId()));
+            }
+        }
+        idsByType.forEach((type, ids) -> republish(followed.get(type), ids));
+    }
+
+    private <T> void republish(Followed<T> f, Set<Long> ids) {
+        Map<Long, T> current = new HashMap<>();
+        for (T row : f.store().findAllById(ids)) current.put(f.idOf().apply(row), row);
+        for (Long id : ids) events.publishEvent(new EntityChangedEvent(f.type(), id, current.get(id), true));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
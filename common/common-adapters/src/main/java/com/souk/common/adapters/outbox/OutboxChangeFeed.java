@@ -0,0 +1,31 @@
+// common-adapters/.../outbox/OutboxChangeFeed.java
+package com.souk.common.adapters.outbox;
+
+import com.souk.common.adapters.jpa.repository.OutboxEventRepository;
+import com.souk.common.domain.OutboxEvent;
+import com.souk.common.port.ChangeFeedPort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** {@link ChangeFeedPort} over the relayed rows of the outbox table. */
+@Component
+public class OutboxChangeFeed implements ChangeFeedPort {
+    private final OutboxEventRepository repo;
+
+    public OutboxChangeFeed(OutboxEventRepository repo) {
+        this.repo = repo;
+    }
+
+    @Override
+    public List<Change> since(long cursor, int limit) {
+        return repo.findByFeedPositionGreaterThanOrderByFeedPositionAsc(cursor, PageRequest.of(0, limit)).stream()
+                .map(OutboxChangeFeed::toChange)
+                .toList();
+    }
+
+    private static Change toChange(OutboxEvent e) {
+        return new Change(e.getFeedPosition(), e.getEntityType(), e.getEntityId(), e.getOperation(), e.getCreatedAt());
+    }
+}
@@ -0,0 +1,108 @@
+// common-adapters/.../outbox/OutboxRelay.java
+package com.souk.common.adapters.outbox;
+
+import com.souk.common.adapters.jpa.repository.OutboxEventRepository;
+import com.souk.common.domain.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves committed outbox rows onto the change feed: each pass locks the oldest
+ * unpublished rows and stamps them with consecutive feed positions. Published rows
+ * are deleted after {@code outbox.retention}, except the newest one, which keeps the
+ * position count going when nothing has been written for that long. Instances read
+ * the feed back through {@link ChangeFeedFollower}.
+ */
+@Component
+@ConditionalOnProperty(value = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final OutboxEventRepository repo;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "outbox-relay");
+        t.setDaemon(true);
+        return t;
+    });
+    private long lastPurge;
+
+    public OutboxRelay(OutboxEventRepository repo,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.poll-interval:1s}") Duration pollInterval,
+                       @Value("${outbox.retention:7d}") Duration retention) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** Relays until the backlog is shorter than one batch. */
+    void drain() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+            purgeIfDue();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed: {}", e.toString());
+        }
+    }
+
+    private int relayBatch() {
+        Integer relayed = tx.execute(status -> {
+            List<OutboxEvent> rows = repo.lockUnpublished(batchSize);
+            if (rows.isEmpty()) return 0;
+            long position = repo.maxFeedPosition();
+            LocalDateTime now = LocalDateTime.now();
+            for (OutboxEvent e : rows) {
+                e.setFeedPosition(++position);
+                e.setPublishedAt(now);
+            }
+            return rows.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MILLIS) return;
+        lastPurge = now;
+        // positions continue from the newest row, so that one always stays
+        Integer purged = tx.execute(status -> repo.deletePublishedBefore(
+                LocalDateTime.now().minus(retention), repo.maxFeedPosition()));
+        if (purged != null && purged > 0) log.debug("Purged {} relayed outbox rows", purged);
+    }
+}
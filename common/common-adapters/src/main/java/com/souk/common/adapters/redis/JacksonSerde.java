@@ -0,0 +1,24 @@
+// common-adapters/.../redis/JacksonSerde.java
+package com.souk.common.adapters.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** {@link RedisCacheAdapter.Serde} backed by a Jackson {@link ObjectMapper}. */
+public class JacksonSerde<T> implements RedisCacheAdapter.Serde<T> {
+    private final ObjectMapper mapper;
+    private final JavaType type;
+
+    public JacksonSerde(ObjectMapper mapper, Class<T> type) { this(mapper, mapper.constructType(type)); }
+    public JacksonSerde(ObjectMapper mapper, JavaType type) { this.mapper = mapper; this.type = type; }
+
+    @Override public String toJson(T v) {
+        try { return mapper.writeValueAsString(v); }
+        catch (JsonProcessingException e) { throw new IllegalStateException("Cannot serialise " + type.toCanonical(), e); }
+    }
+    @Override public T fromJson(String s) {
+        try { return mapper.readValue(s, type); }
+        catch (JsonProcessingException e) { throw new IllegalStateException("Cannot deserialise " + type.toCanonical(), e); }
+    }
+}
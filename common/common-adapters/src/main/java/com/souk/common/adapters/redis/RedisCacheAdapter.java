@@ -3,18 +3,26 @@ package com.souk.common.adapters.redis;
 
 import com.souk.common.port.CachePort;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.stereotype.Component;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-@Component
-@ConditionalOnProperty(value = "rediscache.enabled", havingValue = "true", matchIfMissing=false)
+/** Shared L2 cache; one instance per entity type is wired in {@code CacheConfig}. */
 public class RedisCacheAdapter<T, ID> implements CachePort<T, ID> {
     public interface Serde<T> { String toJson(T v); T fromJson(String s); }
     public interface Keyer<ID> { String key(ID id); }
 
+    private static final StringRedisSerializer UTF8 = StringRedisSerializer.UTF_8;
+
     private final StringRedisTemplate redis;
     private final Serde<T> serde;
     private final Keyer<ID> keyer;
@@ -31,4 +39,30 @@ public class RedisCacheAdapter<T, ID> implements CachePort<T, ID> {
         redis.opsForValue().set(keyer.key(id), serde.toJson(value), ttl);
     }
     @Override public void evict(ID id) { redis.delete(keyer.key(id)); }
+
+    /** One MGET round trip for all keys. */
+    @Override public Map<ID, T> getAll(Collection<ID> ids) {
+        if (ids.isEmpty()) return Map.of();
+        List<ID> order = new ArrayList<>(ids);
+        List<String> values = redis.opsForValue().multiGet(order.stream().map(keyer::key).toList());
+        Map<ID, T> hits = new HashMap<>();
+        if (values == null) return hits;
+        for (int i = 0; i < order.size(); i++) {
+            String json = values.get(i);
+            if (json != null) hits.put(order.get(i), serde.fromJson(json));
+        }
+        return hits;
+    }
+
+    /** Pipelined SET EX, so N entries cost a single round trip. */
+    @Override public void putAll(Map<ID, T> values, Duration ttl) {
+        if (values.isEmpty()) return;
+        Expiration exp = Expiration.from(ttl);
+        redis.executePipelined((RedisCallback<Object>) conn -> {
+            values.forEach((id, v) -> conn.stringCommands().set(
+                    UTF8.serialize(keyer.key(id)), UTF8.serialize(serde.toJson(v)),
+                    exp, RedisStringCommands.SetOption.upsert()));
+            return null;
+        });
+    }
 }
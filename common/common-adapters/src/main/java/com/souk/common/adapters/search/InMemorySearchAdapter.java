@@ -0,0 +1,84 @@
+// common-adapters/.../search/InMemorySearchAdapter.java
+package com.souk.common.adapters.search;
+
+import com.souk.common.adapters.jpa.EntityChangedEvent;
+import com.souk.common.adapters.jpa.IndexBuildBuffer;
+import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.SearchPort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * {@link SearchPort} over an {@link InvertedIndex} that needs no external service.
+ * The index holds ids only; hits are materialised through the (cached) data port.
+ * It is built by a background scan once the application is up and then kept
+ * current from {@link EntityChangedEvent}s, which are held back until the scan is done.
+ */
+public class InMemorySearchAdapter<T, ID> implements SearchPort<T> {
+    private static final Logger log = LoggerFactory.getLogger(InMemorySearchAdapter.class);
+    private static final int REBUILD_BATCH = 500;
+
+    private final String name;
+    private final Class<T> type;
+    private final DataAccessPort<T, ID> store;
+    private final Function<T, ID> idOf;
+    private final Function<T, List<String>> fieldsOf;
+    private final InvertedIndex<ID> index = new InvertedIndex<>();
+    private final IndexBuildBuffer changes = new IndexBuildBuffer(this::apply);
+    private volatile boolean ready;
+
+    public InMemorySearchAdapter(String name, Class<T> type, DataAccessPort<T, ID> store,
+                                 Function<T, ID> idOf, Function<T, List<String>> fieldsOf) {
+        this.name = name; this.type = type; this.store = store; this.idOf = idOf; this.fieldsOf = fieldsOf;
+    }
+
+    @Override public boolean isReady() { return ready; }
+
+    @Override public List<T> search(String query, int limit) {
+        List<ID> ids = index.search(query, limit);
+        if (ids.isEmpty()) return List.of();
+        Map<ID, T> byId = new HashMap<>();
+        for (T v : store.findAllById(ids)) byId.put(idOf.apply(v), v);
+        List<T> out = new ArrayList<>(ids.size());
+        for (ID id : ids) {
+            T v = byId.get(id);
+            if (v != null) out.add(v);
+        }
+        return out;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent e) {
+        if (e.isFor(type)) changes.accept(e);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(EntityChangedEvent e) {
+        if (e.isDelete()) index.remove((ID) e.id());
+        else index.put((ID) e.id(), fieldsOf.apply((T) e.entity()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread t = new Thread(this::rebuild, "search-index-" + name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            changes.build(() -> store.forEachBatch(REBUILD_BATCH, batch -> batch.forEach(v -> index.put(idOf.apply(v), fieldsOf.apply(v)))));
+            ready = true;
+            log.info("Search index '{}' built: {} docs in {} ms", name, index.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.warn("Search index '{}' build failed: {}", name, e.toString());
+        }
+    }
+}
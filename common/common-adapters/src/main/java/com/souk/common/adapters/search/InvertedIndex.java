@@ -0,0 +1,127 @@
+// common-adapters/.../search/InvertedIndex.java
+package com.souk.common.adapters.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Term -> (doc -> term frequency) postings with BM25 scoring. Terms live in a
+ * sorted map so a query term also matches every indexed term it prefixes.
+ * All query terms must match (AND); per query term a document scores its best
+ * matching expansion, with prefix expansions weighted below exact hits.
+ */
+public class InvertedIndex<ID> {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<ID, Integer>> postings = new TreeMap<>();
+    private final Map<ID, Map<String, Integer>> termsByDoc = new HashMap<>();
+    private final Map<ID, Integer> docLength = new HashMap<>();
+    private long totalLength;
+
+    /** Adds or replaces a document. */
+    public void put(ID id, Collection<String> texts) {
+        Map<String, Integer> tf = new HashMap<>();
+        int length = 0;
+        for (String text : texts) {
+            for (String token : Tokenizer.tokens(text)) {
+                tf.merge(token, 1, Integer::sum);
+                length++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (length == 0) return;
+            termsByDoc.put(id, tf);
+            docLength.put(id, length);
+            totalLength += length;
+            tf.forEach((term, n) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(id, n));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(ID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByDoc.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids of the best matching documents, highest score first. */
+    public List<ID> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokens(query)));
+        if (terms.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            int n = termsByDoc.size();
+            if (n == 0) return List.of();
+            double avgLength = (double) totalLength / n;
+
+            Map<ID, Double> scores = null;
+            for (String q : terms) {
+                Map<ID, Double> best = new HashMap<>();
+                int expansions = 0;
+                // the exact term sorts first, so it is never cut off by the expansion cap
+                for (Map.Entry<String, Map<ID, Integer>> e
+                        : postings.subMap(q, true, q + Character.MAX_VALUE, false).entrySet()) {
+                    if (expansions++ == MAX_PREFIX_EXPANSIONS) break;
+                    double weight = e.getKey().equals(q) ? 1.0 : PREFIX_WEIGHT;
+                    double idf = Math.log(1 + (n - e.getValue().size() + 0.5) / (e.getValue().size() + 0.5));
+                    for (Map.Entry<ID, Integer> p : e.getValue().entrySet()) {
+                        int tf = p.getValue();
+                        double norm = tf + K1 * (1 - B + B * docLength.get(p.getKey()) / avgLength);
+                        best.merge(p.getKey(), weight * idf * tf * (K1 + 1) / norm, Math::max);
+                    }
+                }
+                if (scores == null) {
+                    scores = best;
+                } else {
+                    scores.keySet().retainAll(best.keySet());
+                    scores.replaceAll((id, s) -> s + best.get(id));
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            PriorityQueue<Map.Entry<ID, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<ID, Double> e : scores.entrySet()) {
+                top.offer(e);
+                if (top.size() > limit) top.poll();
+            }
+            List<ID> out = new ArrayList<>(top.size());
+            while (!top.isEmpty()) out.add(top.poll().getKey());
+            Collections.reverse(out);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(ID id) {
+        Map<String, Integer> tf = termsByDoc.remove(id);
+        if (tf == null) return;
+        totalLength -= docLength.remove(id);
+        for (String term : tf.keySet()) {
+            Map<ID, Integer> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) postings.remove(term);
+        }
+    }
+}
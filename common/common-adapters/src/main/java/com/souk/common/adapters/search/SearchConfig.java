@@ -0,0 +1,60 @@
+// common-adapters/.../search/SearchConfig.java
+package com.souk.common.adapters.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.souk.common.domain.Product;
+import com.souk.common.domain.Vendor;
+import com.souk.common.port.DataAccessPort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process search for products and vendors; replaced by Elasticsearch when {@code elasticsearch.enabled=true}.
+ * Each index loads its whole table, so it is only built where {@code product.indexes.enabled} or
+ * {@code vendor.indexes.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(value = "elasticsearch.enabled", havingValue = "false", matchIfMissing = true)
+public class SearchConfig {
+
+    @Bean
+    @ConditionalOnProperty(value = "product.indexes.enabled", havingValue = "true")
+    public InMemorySearchAdapter<Product, Long> productSearch(DataAccessPort<Product, Long> products) {
+        return new InMemorySearchAdapter<>("product", Product.class, products, Product::getId, SearchConfig::productFields);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "vendor.indexes.enabled", havingValue = "true")
+    public InMemorySearchAdapter<Vendor, Long> vendorSearch(DataAccessPort<Vendor, Long> vendors) {
+        return new InMemorySearchAdapter<>("vendor", Vendor.class, vendors, Vendor::getVendorId, SearchConfig::vendorFields);
+    }
+
+    static List<String> productFields(Product p) {
+        List<String> out = new ArrayList<>();
+        out.add(p.getName());
+        out.add(p.getSku());
+        collectText(p.getCategoryDetails(), out);
+        return out;
+    }
+
+    static List<String> vendorFields(Vendor v) {
+        List<String> out = new ArrayList<>();
+        out.add(v.getName());
+        out.add(v.getEmail());
+        out.add(v.getPhoneNumber());
+        // digits only as well, so "91234567" finds "+65 9123 4567"
+        if (v.getPhoneNumber() != null) out.add(v.getPhoneNumber().replaceAll("\\D", ""));
+        if (v.getVendorId() != null) out.add(String.valueOf(v.getVendorId()));
+        return out;
+    }
+
+    private static void collectText(JsonNode node, List<String> out) {
+        if (node == null) return;
+        if (node.isValueNode()) out.add(node.asText());
+        else node.forEach(child -> collectText(child, out));
+    }
+}
@@ -0,0 +1,23 @@
+// common-adapters/.../search/Tokenizer.java
+package com.souk.common.adapters.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/** Lower-cases and splits on anything that is not a letter or digit. */
+final class Tokenizer {
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Tokenizer() {}
+
+    static List<String> tokens(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isBlank()) return out;
+        for (String t : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!t.isEmpty()) out.add(t);
+        }
+        return out;
+    }
+}
@@ -24,6 +24,10 @@ public class Cuisine {
     @Column(name = "region", length = 100)
     private String region;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getCuisineName() { return cuisineName; }
@@ -34,5 +38,7 @@ public class Cuisine {
     public void setSubcategory(String subcategory) { this.subcategory = subcategory; }
     public String getRegion() { return region; }
     public void setRegion(String region) { this.region = region; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
 
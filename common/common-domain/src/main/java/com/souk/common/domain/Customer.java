@@ -1,11 +1,13 @@
 package com.souk.common.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "customers")
 public class Customer {
 
@@ -32,6 +34,10 @@ public class Customer {
     @Column(name = "updated_at", insertable = false, updatable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // ✅ One-to-Many relationship to customer_addresses
     @OneToMany(mappedBy = "customer", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<CustomerAddress> addresses = new ArrayList<>();
@@ -54,6 +60,8 @@ public class Customer {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 
     public List<CustomerAddress> getAddresses() { return addresses; }
     public void setAddresses(List<CustomerAddress> addresses) {
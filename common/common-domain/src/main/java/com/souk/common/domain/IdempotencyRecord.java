@@ -0,0 +1,56 @@
+package com.souk.common.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * The response first returned for an Idempotency-Key, replayed to retries until it expires.
+ */
+@Entity
+@Table(
+        name = "idempotency_keys",
+        indexes = {
+                @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+        }
+)
+public class IdempotencyRecord {
+
+    // "<scope>:<client key>", so different endpoints can reuse the same client key
+    @Id
+    @Column(name = "record_key", length = 300)
+    private String recordKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // null while the first request is still running
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "response_body", columnDefinition = "LONGTEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public String getRecordKey() { return recordKey; }
+    public void setRecordKey(String recordKey) { this.recordKey = recordKey; }
+
+    public String getRequestHash() { return requestHash; }
+    public void setRequestHash(String requestHash) { this.requestHash = requestHash; }
+
+    public Integer getStatusCode() { return statusCode; }
+    public void setStatusCode(Integer statusCode) { this.statusCode = statusCode; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -1,6 +1,8 @@
 package com.souk.common.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -8,6 +10,7 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(
         name = "orders",
         indexes = {
@@ -19,7 +22,9 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence ids (not IDENTITY) so Hibernate can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_id_gen")
+    @SequenceGenerator(name = "order_id_gen", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long id;
 
@@ -70,8 +75,13 @@ public class Order {
     @Column(name = "updated_at", insertable = false, updatable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // --- Relationship to order items ---
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<OrderItem> items;
 
     // --- ENUMS ---
@@ -123,6 +133,8 @@ public class Order {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 
     public List<OrderItem> getItems() { return items; }
     public void setItems(List<OrderItem> items) { this.items = items; }
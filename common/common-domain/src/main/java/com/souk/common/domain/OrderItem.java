@@ -10,7 +10,8 @@ import java.time.LocalTime;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_id_gen")
+    @SequenceGenerator(name = "order_item_id_gen", sequenceName = "order_items_seq", allocationSize = 50)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -48,6 +49,10 @@ public class OrderItem {
     @Column(name = "delivery_slot_end")
     private LocalTime deliverySlotEnd;
 
+    // Start of the schedule window stock was reserved against (null: nothing reserved)
+    @Column(name = "reserved_slot_start")
+    private LocalTime reservedSlotStart;
+
     // --- ENUM ---
     public enum DeliveryFlexibility {
         STRICT, FLEXIBLE
@@ -82,4 +87,7 @@ public class OrderItem {
 
     public LocalTime getDeliverySlotEnd() { return deliverySlotEnd; }
     public void setDeliverySlotEnd(LocalTime deliverySlotEnd) { this.deliverySlotEnd = deliverySlotEnd; }
+
+    public LocalTime getReservedSlotStart() { return reservedSlotStart; }
+    public void setReservedSlotStart(LocalTime reservedSlotStart) { this.reservedSlotStart = reservedSlotStart; }
 }
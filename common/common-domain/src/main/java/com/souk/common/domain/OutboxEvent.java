@@ -0,0 +1,69 @@
+package com.souk.common.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One entity write, recorded in the same transaction as the write itself. The relay
+ * stamps {@code feedPosition} when it publishes the row; that position (not the id,
+ * which is allocated before commit) is the cursor consumers of the change feed use.
+ */
+@Entity
+@Table(
+        name = "outbox_events",
+        indexes = {
+                @Index(name = "uq_outbox_feed_position", columnList = "feed_position", unique = true),
+                @Index(name = "idx_outbox_published_at", columnList = "published_at")
+        }
+)
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_id_gen")
+    @SequenceGenerator(name = "outbox_event_id_gen", sequenceName = "outbox_events_seq", allocationSize = 50)
+    @Column(name = "event_id")
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 50)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false, length = 64)
+    private String entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 10)
+    private Operation operation;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "feed_position")
+    private Long feedPosition;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public enum Operation {
+        UPSERT, DELETE
+    }
+
+    public Long getId() { return id; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public String getEntityId() { return entityId; }
+    public void setEntityId(String entityId) { this.entityId = entityId; }
+
+    public Operation getOperation() { return operation; }
+    public void setOperation(Operation operation) { this.operation = operation; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getFeedPosition() { return feedPosition; }
+    public void setFeedPosition(Long feedPosition) { this.feedPosition = feedPosition; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+}
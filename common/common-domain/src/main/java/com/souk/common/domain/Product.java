@@ -3,6 +3,7 @@ package com.souk.common.domain;
 import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -11,10 +12,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "products")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence ids so catalog imports can batch their inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_gen")
+    @SequenceGenerator(name = "product_id_gen", sequenceName = "products_seq", allocationSize = 50)
     @Column(name = "product_id")
     private Long id;
 
@@ -47,6 +51,11 @@ public class Product {
     @Column(name = "schedule_updated", insertable = false, updatable = false)
     private LocalDateTime scheduleUpdated;
 
+    /** Optimistic-lock counter; bumped by every update, matched by conditional writes */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<ProductMedia> media;
 
@@ -77,6 +86,8 @@ public class Product {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getScheduleUpdated() { return scheduleUpdated; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 
     public List<ProductMedia> getMedia() { return media; }
     public void setMedia(List<ProductMedia> media) { this.media = media; }
@@ -0,0 +1,67 @@
+package com.souk.common.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Objects;
+
+/**
+ * Units reserved against one schedule slot of a product. Rows are created on the
+ * first reservation for a slot, which also fixes its capacity, and only ever changed
+ * by conditional updates.
+ */
+@Entity
+@Table(name = "stock_ledger")
+@IdClass(StockLedger.Key.class)
+public class StockLedger {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "slot_date")
+    private LocalDate slotDate;
+
+    @Id
+    @Column(name = "slot_start")
+    private LocalTime slotStart;
+
+    @Column(name = "capacity", nullable = false)
+    private Integer capacity;
+
+    @Column(name = "reserved", nullable = false)
+    private Integer reserved = 0;
+
+    // set by every reservation and release; the reconciler only recounts idle slots
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public Long getProductId() { return productId; }
+    public LocalDate getSlotDate() { return slotDate; }
+    public LocalTime getSlotStart() { return slotStart; }
+    public Integer getCapacity() { return capacity; }
+    public Integer getReserved() { return reserved; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long productId;
+        private LocalDate slotDate;
+        private LocalTime slotStart;
+
+        public Key() {}
+        public Key(Long productId, LocalDate slotDate, LocalTime slotStart) {
+            this.productId = productId; this.slotDate = slotDate; this.slotStart = slotStart;
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(productId, k.productId)
+                    && Objects.equals(slotDate, k.slotDate) && Objects.equals(slotStart, k.slotStart);
+        }
+        @Override public int hashCode() { return Objects.hash(productId, slotDate, slotStart); }
+    }
+}
@@ -0,0 +1,22 @@
+package com.souk.common.domain;
+
+import jakarta.persistence.*;
+
+/**
+ * Write counter per entity type, bumped right after every committed write.
+ * Collection endpoints derive their ETag from it.
+ */
+@Entity
+@Table(name = "table_versions")
+public class TableVersion {
+
+    @Id
+    @Column(name = "entity_type", length = 50)
+    private String entityType;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public String getEntityType() { return entityType; }
+    public Long getVersion() { return version; }
+}
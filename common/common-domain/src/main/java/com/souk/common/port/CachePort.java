@@ -8,4 +8,15 @@ public interface CachePort<T, ID> {
     Optional<T> get(ID id);
     void put(ID id, T value, Duration ttl);
     void evict(ID id);
+
+    /** Hits only; ids that are not cached are absent from the returned map. */
+    default Map<ID, T> getAll(Collection<ID> ids) {
+        Map<ID, T> hits = new HashMap<>();
+        for (ID id : ids) get(id).ifPresent(v -> hits.put(id, v));
+        return hits;
+    }
+
+    default void putAll(Map<ID, T> values, Duration ttl) {
+        values.forEach((id, v) -> put(id, v, ttl));
+    }
 }
@@ -0,0 +1,18 @@
+package com.souk.common.port;
+
+import com.souk.common.domain.OutboxEvent.Operation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ordered feed of entity writes. Consumers remember the last {@link Change#cursor()}
+ * they applied and ask for everything after it, instead of rescanning tables.
+ */
+public interface ChangeFeedPort {
+
+    /** Published changes with a cursor greater than {@code cursor} (0 for the start), oldest first. */
+    List<Change> since(long cursor, int limit);
+
+    record Change(long cursor, String entityType, String entityId, Operation operation, LocalDateTime changedAt) {}
+}
@@ -1,10 +1,79 @@
 package com.souk.common.port;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 public interface DataAccessPort<T, ID> {
     T save(T entity);
+    /** Saves all entities in one unit of work so inserts can be batched; returns them in input order. */
+    default List<T> saveAll(Collection<T> entities) {
+        List<T> out = new ArrayList<>(entities.size());
+        for (T e : entities) out.add(save(e));
+        return out;
+    }
     Optional<T> findById(ID id);
+    /**
+     * Like {@link #findById}, but the instance belongs to the caller, who may modify it and
+     * save it. {@code findById} may hand out an instance shared with other readers (a cache).
+     */
+    default Optional<T> findForWrite(ID id) { return findById(id); }
     List<T> findAll();
+    /** Batched lookup; unknown ids are skipped and result order is unspecified. */
+    List<T> findAllById(Collection<ID> ids);
     void deleteById(ID id);
+
+    /**
+     * Sets {@code changes} (entity attribute name to new value) and bumps the row's version
+     * in one UPDATE, only while the row is still at {@code expectedVersion}; null skips that
+     * check. Nothing is read or locked beforehand. An applied result carries the row as written.
+     */
+    WriteResult<T> updateIfVersion(ID id, Long expectedVersion, Map<String, ?> changes);
+
+    /**
+     * Set-based update of every row whose {@code attribute} equals {@code value}: one UPDATE
+     * (bumping each version) instead of a load and save per row. Returns the ids it changed.
+     */
+    List<ID> updateWhere(String attribute, Object value, Map<String, ?> changes);
+
+    /**
+     * One DELETE, guarded by {@code expectedVersion} like {@link #updateIfVersion}. Child rows
+     * go with the foreign keys' ON DELETE CASCADE rather than JPA cascades.
+     */
+    WriteResult<T> deleteIfVersion(ID id, Long expectedVersion);
+
+    /**
+     * Keyset page ordered by primary key. Pass the previous page's
+     * {@link KeysetPage#nextCursor()} as {@code afterId} (null for the first page).
+     */
+    KeysetPage<T, ID> findPage(ID afterId, int limit, Direction sort);
+
+    /**
+     * Walks the whole table in keyset pages of {@code batchSize}, handing each
+     * page to {@code consumer}. Only one page is held in memory at a time.
+     */
+    default void forEachBatch(int batchSize, Consumer<List<T>> consumer) {
+        ID cursor = null;
+        KeysetPage<T, ID> page;
+        do {
+            page = findPage(cursor, batchSize, Direction.ASC);
+            if (!page.items().isEmpty()) consumer.accept(page.items());
+            cursor = page.nextCursor();
+        } while (page.hasNext());
+    }
+
+    /**
+     * Streams every row in primary-key order from a server-side cursor, detaching
+     * loaded entities every {@code fetchSize} rows. {@code sink} runs inside the
+     * read transaction, so it may touch lazy associations but must not keep references.
+     */
+    void streamAll(int fetchSize, Consumer<? super T> sink);
+
+    enum Direction { ASC, DESC }
+
+    /** Outcome of a conditional write; {@code entity} is only set for applied updates. */
+    record WriteResult<T>(Status status, T entity) {
+        public enum Status { APPLIED, NOT_FOUND, CONFLICT }
+
+        public static <T> WriteResult<T> of(Status status) { return new WriteResult<>(status, null); }
+    }
 }
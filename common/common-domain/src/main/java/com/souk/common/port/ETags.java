@@ -0,0 +1,43 @@
+package com.souk.common.port;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Strong entity tags built from identity and change markers only, so checking
+ * If-None-Match never needs the response body.
+ */
+public final class ETags {
+    private ETags() {}
+
+    /** One row, or a whole collection when {@code id} is null, tagged by its version counter. */
+    public static String of(String type, Object id, long version) {
+        return quote(type + (id != null ? "-" + id : "") + "-v" + version);
+    }
+
+    /**
+     * The version an If-Match header pins for one row: null when the header is absent or
+     * {@code *}, and -1 (never a stored version) for a tag of another row or shape, so the
+     * conditional write simply conflicts.
+     */
+    public static Long ifMatchVersion(String ifMatch, String type, Object id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String prefix = "\"" + type + "-" + id + "-v";
+        String tag = ifMatch.trim();
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"")) return -1L;
+        try {
+            return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /** Millis for Last-Modified; DB timestamps are read in the JVM's zone. */
+    public static long epochMillis(LocalDateTime t) {
+        return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String quote(String s) {
+        return "\"" + s + "\"";
+    }
+}
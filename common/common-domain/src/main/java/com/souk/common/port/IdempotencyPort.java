@@ -0,0 +1,37 @@
+package com.souk.common.port;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per (scope, Idempotency-Key). Concurrent duplicates
+ * wait for the first execution; later retries get its stored response back.
+ * The key is stored in the same transaction as the action's own writes, so the
+ * two commit together or not at all.
+ */
+public interface IdempotencyPort {
+    String HEADER = "Idempotency-Key";
+    String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    /**
+     * Returns the stored response for the key, or runs {@code action} and stores its
+     * result if it succeeded (2xx). Callers compare {@link StoredResponse#requestHash()}
+     * with their own to detect a key reused for a different request.
+     *
+     * @throws InProgress when the key is held by an execution that has not finished in time
+     */
+    Result execute(String scope, String key, String requestHash, Supplier<StoredResponse> action);
+
+    record StoredResponse(String requestHash, int status, String body) {}
+
+    /** The key is claimed by a request that is still running; the client should retry later. */
+    class InProgress extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public InProgress(String key) {
+            super("Idempotency key " + key + " is still in progress");
+        }
+    }
+
+    /** {@code replayed} is false only for the call that actually ran the action. */
+    record Result(StoredResponse response, boolean replayed) {}
+}
@@ -0,0 +1,22 @@
+package com.souk.common.port;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) scan. {@code nextCursor} is the id of the last
+ * row when more rows may follow, otherwise null.
+ */
+public record KeysetPage<T, ID>(List<T> items, ID nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    public boolean hasNext() { return nextCursor != null; }
+
+    /** Normalises a client supplied page size into [1, MAX_LIMIT]. */
+    public static int clampLimit(Integer requested) {
+        if (requested == null || requested < 1) return DEFAULT_LIMIT;
+        return Math.min(requested, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,74 @@
+package com.souk.common.port;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * JSON Merge Patch (RFC 7396) over flat resources, turned into attribute changes for
+ * {@link DataAccessPort#updateIfVersion} so only the members sent become columns in the UPDATE.
+ */
+public final class MergePatch {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private MergePatch() {}
+
+    /**
+     * True when some member targets a JSON document attribute with an object value. Such a
+     * member merges into the stored document, so the current row has to be read first.
+     */
+    public static boolean mergesDocuments(JsonNode patch, Map<String, Class<?>> fields) {
+        for (Map.Entry<String, JsonNode> m : patch.properties()) {
+            if (fields.get(m.getKey()) == JsonNode.class && m.getValue().isObject()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Attribute changes for {@code patch}. {@code fields} maps each accepted member to the type
+     * of the attribute it sets. null clears the attribute, except for members in
+     * {@code notNull}; other values are converted with {@code mapper}. Object values for
+     * document attributes are merged into {@code current.apply(member)}, which is only
+     * called in that case.
+     *
+     * @throws IllegalArgumentException if the patch is not an object, names an unknown member,
+     *                                  clears a required one or carries a value of the wrong shape
+     */
+    public static Map<String, Object> changes(JsonNode patch, Map<String, Class<?>> fields, Set<String> notNull,
+                                              ObjectMapper mapper, Function<String, ?> current) {
+        if (patch == null || !patch.isObject()) throw new IllegalArgumentException("Merge patch must be a JSON object");
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> m : patch.properties()) {
+            Class<?> type = fields.get(m.getKey());
+            if (type == null) throw new IllegalArgumentException("Unknown or read-only member: " + m.getKey());
+            JsonNode value = m.getValue();
+            if (value.isNull()) {
+                if (notNull.contains(m.getKey())) throw new IllegalArgumentException("Member cannot be cleared: " + m.getKey());
+                changes.put(m.getKey(), null);
+            } else if (type == JsonNode.class) {
+                changes.put(m.getKey(), value.isObject() ? apply((JsonNode) current.apply(m.getKey()), value) : value);
+            } else {
+                changes.put(m.getKey(), mapper.convertValue(value, type));
+            }
+        }
+        return changes;
+    }
+
+    /** RFC 7396 section 2: the result of applying {@code patch} to {@code target}. */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) return patch;
+        ObjectNode result = target != null && target.isObject()
+                ? ((ObjectNode) target).deepCopy()
+                : ((ObjectNode) patch).objectNode();
+        for (Map.Entry<String, JsonNode> m : patch.properties()) {
+            if (m.getValue().isNull()) result.remove(m.getKey());
+            else result.set(m.getKey(), apply(result.get(m.getKey()), m.getValue()));
+        }
+        return result;
+    }
+}
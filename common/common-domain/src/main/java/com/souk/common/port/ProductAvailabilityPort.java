@@ -0,0 +1,20 @@
+package com.souk.common.port;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Answers "which products can be ordered when" from {@code Product.schedule}
+ * without loading the products themselves.
+ */
+public interface ProductAvailabilityPort {
+
+    /**
+     * Ids (ascending) of products orderable at some moment in {@code [from, to)};
+     * pass {@code from == to} for a single point in time. Products without a
+     * schedule are orderable whenever they are marked available.
+     */
+    List<Long> availableBetween(Instant from, Instant to);
+
+    boolean isReady();
+}
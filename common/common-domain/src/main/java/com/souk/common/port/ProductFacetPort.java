@@ -0,0 +1,20 @@
+package com.souk.common.port;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted filtering over products without touching the products table.
+ * Filters are facet -> accepted values: values of one facet are OR-ed,
+ * facets are AND-ed. Matching is case-insensitive.
+ */
+public interface ProductFacetPort {
+    List<String> FACETS = List.of("cuisine", "category", "subcategory", "region", "vendorId", "available");
+
+    /** Matching ids (keyset page after {@code afterId}), total matches, and per-facet value counts within the match. */
+    FacetResult query(Map<String, List<String>> filters, Long afterId, int limit);
+
+    boolean isReady();
+
+    record FacetResult(List<Long> ids, long total, Long nextCursor, Map<String, Map<String, Long>> counts) {}
+}
@@ -1,6 +1,8 @@
 package com.souk.common.port;
 
 import com.souk.common.domain.Product;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -9,5 +11,8 @@ import java.util.Optional;
  */
 public interface ProductQueryPort {
     Optional<Product> findBySku(String sku);
+
+    /** One query for many SKUs, without media; unknown SKUs are skipped. */
+    List<Product> findAllBySku(Collection<String> skus);
 }
 
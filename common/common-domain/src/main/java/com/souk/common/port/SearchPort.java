@@ -5,4 +5,7 @@ import java.util.*;
 
 public interface SearchPort<T> {
     List<T> search(String query, int limit);
+
+    /** False while an index is still being built; callers may fall back to a scan. */
+    default boolean isReady() { return true; }
 }
@@ -0,0 +1,21 @@
+package com.souk.common.port;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Per-slot stock counters for scheduled products. Both operations are single
+ * atomic statements committed on their own, so concurrent checkouts of one hot
+ * slot never wait on each other's order transaction.
+ */
+public interface StockLedgerPort {
+
+    /**
+     * Reserves {@code quantity} units if that keeps the slot within its capacity; false when
+     * sold out. {@code capacity} only applies to the first reservation, which creates the slot.
+     */
+    boolean reserve(Long productId, LocalDate date, LocalTime slotStart, int capacity, int quantity);
+
+    /** Returns {@code quantity} units to the slot (never below zero). */
+    void release(Long productId, LocalDate date, LocalTime slotStart, int quantity);
+}
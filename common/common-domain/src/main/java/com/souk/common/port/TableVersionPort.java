@@ -0,0 +1,9 @@
+package com.souk.common.port;
+
+/**
+ * Monotonic write counter per entity type: any committed save or delete of that
+ * type changes it, on whichever instance it happened.
+ */
+public interface TableVersionPort {
+    long version(Class<?> entityType);
+}
@@ -2,14 +2,25 @@ package com.souk.cuisine.api;
 
 import com.souk.common.domain.Cuisine;
 import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.DataAccessPort.Direction;
+import com.souk.common.port.DataAccessPort.WriteResult;
+import com.souk.common.port.ETags;
+import com.souk.common.port.KeysetPage;
+import com.souk.common.port.TableVersionPort;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/cuisines")
@@ -17,21 +28,32 @@ import java.util.List;
 public class CuisineController {
 
     private final DataAccessPort<Cuisine, Long> cuisinePort;
+    private final TableVersionPort tableVersions;
 
-    public CuisineController(DataAccessPort<Cuisine, Long> cuisinePort) {
+    public CuisineController(DataAccessPort<Cuisine, Long> cuisinePort, TableVersionPort tableVersions) {
         this.cuisinePort = cuisinePort;
+        this.tableVersions = tableVersions;
     }
 
     @GetMapping
-    public List<Cuisine> listAll() {
-        return cuisinePort.findAll();
+    public ResponseEntity<List<Cuisine>> listAll(@RequestParam(value = "after", required = false) Long after,
+                                                 @RequestParam(value = "limit", required = false) Integer limit,
+                                                 WebRequest request) {
+        String etag = ETags.of("cuisines", null, tableVersions.version(Cuisine.class));
+        if (request.checkNotModified(etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        KeysetPage<Cuisine, Long> page = cuisinePort.findPage(after, KeysetPage.clampLimit(limit), Direction.ASC);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (page.hasNext()) ok.header(KeysetPage.NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        return ok.body(page.items());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Cuisine> getById(@PathVariable @Min(1) Long id) {
-        return cuisinePort.findById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Cuisine> getById(@PathVariable @Min(1) Long id, WebRequest request) {
+        Optional<Cuisine> found = cuisinePort.findById(id);
+        if (found.isEmpty()) return ResponseEntity.notFound().build();
+        String etag = ETags.of("cuisine", id, found.get().getVersion());
+        if (request.checkNotModified(etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        return ResponseEntity.ok().eTag(etag).body(found.get());
     }
 
     @PostMapping
@@ -41,23 +63,28 @@ public class CuisineController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Cuisine> update(@PathVariable @Min(1) Long id, @RequestBody @Valid Cuisine req) {
-        return cuisinePort.findById(id)
-                .map(existing -> {
-                    existing.setCuisineName(req.getCuisineName());
-                    existing.setCategory(req.getCategory());
-                    existing.setSubcategory(req.getSubcategory());
-                    existing.setRegion(req.getRegion());
-                    return ResponseEntity.ok(cuisinePort.save(existing));
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Cuisine> update(@PathVariable @Min(1) Long id, @RequestBody @Valid Cuisine req,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("cuisineName", req.getCuisineName());
+        changes.put("category", req.getCategory());
+        changes.put("subcategory", req.getSubcategory());
+        changes.put("region", req.getRegion());
+        WriteResult<Cuisine> r = cuisinePort.updateIfVersion(id, ETags.ifMatchVersion(ifMatch, "cuisine", id), changes);
+        return switch (r.status()) {
+            case APPLIED -> ResponseEntity.ok().eTag(ETags.of("cuisine", id, r.entity().getVersion())).body(r.entity());
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id) {
-        return cuisinePort.findById(id)
-                .map(c -> { cuisinePort.deleteById(id); return ResponseEntity.noContent().<Void>build(); })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return switch (cuisinePort.deleteIfVersion(id, ETags.ifMatchVersion(ifMatch, "cuisine", id)).status()) {
+            case APPLIED -> ResponseEntity.noContent().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
     }
 }
-
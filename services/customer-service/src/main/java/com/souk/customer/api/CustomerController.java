@@ -2,34 +2,61 @@ package com.souk.customer.api;
 
 import com.souk.common.domain.Customer;
 import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.DataAccessPort.Direction;
+import com.souk.common.port.ETags;
+import com.souk.common.port.KeysetPage;
+import com.souk.common.port.TableVersionPort;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/customers")
 public class CustomerController {
 
     private final DataAccessPort<Customer, Long> customerPort;
+    private final TableVersionPort tableVersions;
 
-    public CustomerController(DataAccessPort<Customer, Long> customerPort) {
+    public CustomerController(DataAccessPort<Customer, Long> customerPort, TableVersionPort tableVersions) {
         this.customerPort = customerPort;
+        this.tableVersions = tableVersions;
     }
 
     @GetMapping
-    public List<Customer> listAll() {
-        return customerPort.findAll();
+    public ResponseEntity<List<Customer>> listAll(@RequestParam(value = "after", required = false) Long after,
+                                                  @RequestParam(value = "limit", required = false) Integer limit,
+                                                  WebRequest request) {
+        String etag = ETags.of("customers", null, tableVersions.version(Customer.class));
+        if (request.checkNotModified(etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        KeysetPage<Customer, Long> page = customerPort.findPage(after, KeysetPage.clampLimit(limit), Direction.ASC);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (page.hasNext()) ok.header(KeysetPage.NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        return ok.body(page.items());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getById(@PathVariable @Min(1) Long id) {
-        return customerPort.findById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Customer> getById(@PathVariable @Min(1) Long id, WebRequest request) {
+        Optional<Customer> found = customerPort.findById(id);
+        if (found.isEmpty()) return ResponseEntity.notFound().build();
+        LocalDateTime modified = found.get().getUpdatedAt();
+        String etag = ETags.of("customer", id, found.get().getVersion());
+        boolean fresh = modified != null
+                ? request.checkNotModified(etag, ETags.epochMillis(modified))
+                : request.checkNotModified(etag);
+        if (fresh) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (modified != null) ok.lastModified(ETags.epochMillis(modified));
+        return ok.body(found.get());
     }
 
     @PostMapping
@@ -38,28 +65,37 @@ public class CustomerController {
         return ResponseEntity.created(URI.create("/customers/" + saved.getId())).body(saved);
     }
 
+    // Addresses are a child collection, so an update still loads the customer; the
+    // version check on save turns a concurrent change into 409 instead of a lost update
     @PutMapping("/{id}")
     public ResponseEntity<Customer> update(@PathVariable @Min(1) Long id,
-                                           @RequestBody @Valid Customer updated) {
-        return customerPort.findById(id)
-                .map(existing -> {
-                    existing.setFirstName(updated.getFirstName());
-                    existing.setLastName(updated.getLastName());
-                    existing.setEmail(updated.getEmail());
-                    existing.setPhone(updated.getPhone());
-                    existing.setAddresses(updated.getAddresses());
-                    return ResponseEntity.ok(customerPort.save(existing));
-                })
-                .orElse(ResponseEntity.notFound().build());
+                                           @RequestBody @Valid Customer updated,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Customer> found = customerPort.findById(id);
+        if (found.isEmpty()) return ResponseEntity.notFound().build();
+        Customer existing = found.get();
+        Long expected = ETags.ifMatchVersion(ifMatch, "customer", id);
+        if (expected != null && !expected.equals(existing.getVersion())) return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        existing.setFirstName(updated.getFirstName());
+        existing.setLastName(updated.getLastName());
+        existing.setEmail(updated.getEmail());
+        existing.setPhone(updated.getPhone());
+        existing.setAddresses(updated.getAddresses());
+        try {
+            Customer saved = customerPort.save(existing);
+            return ResponseEntity.ok().eTag(ETags.of("customer", id, saved.getVersion())).body(saved);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id) {
-        return customerPort.findById(id)
-                .map(c -> {
-                    customerPort.deleteById(id);
-                    return ResponseEntity.noContent().<Void>build();
-                })
-                .orElse(ResponseEntity.notFound().<Void>build());
+    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return switch (customerPort.deleteIfVersion(id, ETags.ifMatchVersion(ifMatch, "customer", id)).status()) {
+            case APPLIED -> ResponseEntity.noContent().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
     }
-}
\ No newline at end of file
+}
@@ -4,18 +4,52 @@ import com.souk.common.domain.Order;
 import com.souk.common.domain.OrderItem;
 import com.souk.common.domain.Customer;
 import com.souk.common.domain.CustomerAddress;
+import com.souk.common.domain.Product;
 import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.DataAccessPort.Direction;
+import com.souk.common.port.DataAccessPort.WriteResult;
+import com.souk.common.port.ETags;
+import com.souk.common.port.IdempotencyPort;
+import com.souk.common.port.KeysetPage;
+import com.souk.common.port.MergePatch;
+import com.souk.common.port.TableVersionPort;
 import com.souk.order.api.dto.OrderCreateRequest;
 import com.souk.order.api.dto.OrderResponse;
 import com.souk.order.api.dto.OrderUpdateRequest;
+import com.souk.order.pricing.OrderPricing;
+import com.souk.order.stock.OrderStockReservations;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/orders")
@@ -24,35 +58,128 @@ public class OrderController {
     private final DataAccessPort<Order, Long> orderPort;
     private final DataAccessPort<Customer, Long> customerPort;
     private final DataAccessPort<CustomerAddress, Long> addressPort;
+    private final OrderPricing pricing;
+    private final OrderStockReservations stock;
+    private final IdempotencyPort idempotency;
+    private final TableVersionPort tableVersions;
+    private final ObjectMapper objectMapper;
+    // ledger reservations are compensated when this rolls back, releases wait for its commit
+    private final TransactionTemplate tx;
+
+    // Orders per keyset page of the export (each page loads its items in one query and is flushed to the client)
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    // Merge-patchable members and the Order attribute types they set
+    private static final Map<String, Class<?>> PATCHABLE = Map.of(
+            "status", Order.OrderStatus.class, "paymentMethod", Order.PaymentMethod.class,
+            "requestedDeliveryDate", LocalDate.class, "deliveryFlexibility", Order.DeliveryFlexibility.class,
+            "deliverySlotStart", LocalTime.class, "deliverySlotEnd", LocalTime.class, "notes", String.class);
+    private static final Set<String> NOT_NULL = Set.of("status", "paymentMethod");
 
     public OrderController(DataAccessPort<Order, Long> orderPort,
                            DataAccessPort<Customer, Long> customerPort,
-                           DataAccessPort<CustomerAddress, Long> addressPort) {
+                           DataAccessPort<CustomerAddress, Long> addressPort,
+                           OrderPricing pricing,
+                           OrderStockReservations stock,
+                           IdempotencyPort idempotency,
+                           TableVersionPort tableVersions,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager) {
         this.orderPort = orderPort;
         this.customerPort = customerPort;
         this.addressPort = addressPort;
+        this.pricing = pricing;
+        this.stock = stock;
+        this.idempotency = idempotency;
+        this.tableVersions = tableVersions;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
     }
 
-    // --- List all orders ---
+    // --- List orders (keyset paged, next cursor in X-Next-Cursor) ---
     @GetMapping
-    public List<OrderResponse> listAll() {
-        return orderPort.findAll().stream()
+    public ResponseEntity<List<OrderResponse>> listAll(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest request) {
+        String etag = ETags.of("orders", null, tableVersions.version(Order.class));
+        if (request.checkNotModified(etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        KeysetPage<Order, Long> page = orderPort.findPage(after, KeysetPage.clampLimit(limit), Direction.ASC);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (page.hasNext()) ok.header(KeysetPage.NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        return ok.body(page.items().stream()
                 .map(OrderResponse::from)
-                .toList();
+                .toList());
+    }
+
+    // --- Export every order as newline-delimited JSON, streamed one keyset page at a time ---
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            int[] n = {0};
+            orderPort.streamAll(EXPORT_FETCH_SIZE, o -> {
+                try {
+                    buffered.write(objectMapper.writeValueAsBytes(OrderResponse.from(o)));
+                    buffered.write('\n');
+                    if (++n[0] % EXPORT_FETCH_SIZE == 0) buffered.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
 
     // --- Get order by ID ---
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getById(@PathVariable @Min(1) Long id) {
-        return orderPort.findById(id)
-                .map(OrderResponse::from)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<OrderResponse> getById(@PathVariable @Min(1) Long id, WebRequest request) {
+        Optional<Order> found = orderPort.findById(id);
+        if (found.isEmpty()) return ResponseEntity.notFound().build();
+        LocalDateTime modified = found.get().getUpdatedAt();
+        String etag = ETags.of("order", id, found.get().getVersion());
+        boolean fresh = modified != null
+                ? request.checkNotModified(etag, ETags.epochMillis(modified))
+                : request.checkNotModified(etag);
+        if (fresh) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (modified != null) ok.lastModified(ETags.epochMillis(modified));
+        return ok.body(OrderResponse.from(found.get()));
     }
 
-    // --- Create new order ---
+    // --- Create new order; with an Idempotency-Key, retries get the first response back ---
     @PostMapping
-    public ResponseEntity<OrderResponse> create(@Valid @RequestBody OrderCreateRequest req) {
+    public ResponseEntity<OrderResponse> create(
+            @RequestHeader(value = IdempotencyPort.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OrderCreateRequest req) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) return createOrder(req);
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) return ResponseEntity.badRequest().build();
+
+        String hash = fingerprint(req);
+        IdempotencyPort.Result result;
+        try {
+            // the key is claimed and stored in the order's transaction
+            result = idempotency.execute("orders", idempotencyKey, hash, () -> {
+                ResponseEntity<OrderResponse> r = createOrder(req);
+                return new IdempotencyPort.StoredResponse(hash, r.getStatusCode().value(),
+                        r.getBody() != null ? toJson(r.getBody()) : null);
+            });
+        } catch (IdempotencyPort.InProgress e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        IdempotencyPort.StoredResponse stored = result.response();
+        // same key, different payload: refuse rather than replay someone else's order
+        if (!stored.requestHash().equals(hash)) return ResponseEntity.unprocessableEntity().build();
+
+        OrderResponse body = stored.body() != null ? fromJson(stored.body()) : null;
+        ResponseEntity.BodyBuilder out = ResponseEntity.status(stored.status())
+                .header(IdempotencyPort.REPLAYED_HEADER, String.valueOf(result.replayed()));
+        if (body != null && stored.status() == HttpStatus.CREATED.value()) out.location(URI.create("/orders/" + body.id()));
+        return out.body(body);
+    }
+
+    private ResponseEntity<OrderResponse> createOrder(OrderCreateRequest req) {
         Optional<Customer> customerOpt = customerPort.findById(req.customerId());
         if (customerOpt.isEmpty()) return ResponseEntity.badRequest().build();
 
@@ -60,37 +187,169 @@ public class OrderController {
                 ? addressPort.findById(req.addressId()).orElse(null)
                 : null);
 
-        Order saved = orderPort.save(order);
-        return ResponseEntity.created(URI.create("/orders/" + saved.getId()))
-                .body(OrderResponse.from(saved));
+        // prices and totals come from the catalog, not the request
+        OrderPricing.Outcome priced = pricing.price(order);
+        if (priced != OrderPricing.Outcome.OK) return rejected(priced);
+
+        // 409 when a scheduled slot is sold out; nothing is held in that case, nor if the save fails
+        return tx.execute(status -> {
+            if (!stock.reserve(order)) {
+                status.setRollbackOnly();
+                return ResponseEntity.status(HttpStatus.CONFLICT).<OrderResponse>build();
+            }
+            Order saved = orderPort.save(order);
+            return ResponseEntity.created(URI.create("/orders/" + saved.getId()))
+                    .body(OrderResponse.from(saved));
+        });
+    }
+
+    // --- Create many orders in one transaction; ids are pooled so the inserts go out as JDBC batches ---
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderResponse>> createBatch(@Valid @RequestBody List<OrderCreateRequest> reqs) {
+        if (reqs.isEmpty() || reqs.size() > KeysetPage.MAX_LIMIT) return ResponseEntity.badRequest().build();
+
+        Map<Long, Customer> customers = new HashMap<>();
+        customerPort.findAllById(reqs.stream().map(OrderCreateRequest::customerId).filter(Objects::nonNull).distinct().toList())
+                .forEach(c -> customers.put(c.getId(), c));
+        Map<Long, CustomerAddress> addresses = new HashMap<>();
+        addressPort.findAllById(reqs.stream().map(OrderCreateRequest::addressId).filter(Objects::nonNull).distinct().toList())
+                .forEach(a -> addresses.put(a.getId(), a));
+
+        List<Order> orders = new ArrayList<>(reqs.size());
+        for (OrderCreateRequest req : reqs) {
+            Customer customer = customers.get(req.customerId());
+            if (customer == null) return ResponseEntity.badRequest().build();
+            orders.add(req.toDomain(customer, req.addressId() != null ? addresses.get(req.addressId()) : null));
+        }
+
+        Map<Long, Product> products = pricing.loadProducts(orders);
+        for (Order order : orders) {
+            OrderPricing.Outcome priced = pricing.price(order, products);
+            if (priced != OrderPricing.Outcome.OK) return rejected(priced);
+        }
+
+        // all or nothing: one sold-out slot rejects the batch and nothing is held
+        return tx.execute(status -> {
+            if (!stock.reserve(orders)) {
+                status.setRollbackOnly();
+                return ResponseEntity.status(HttpStatus.CONFLICT).<List<OrderResponse>>build();
+            }
+            List<Order> saved = orderPort.saveAll(orders);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(saved.stream().map(OrderResponse::from).toList());
+        });
     }
 
     // --- Update order ---
     @PutMapping("/{id}")
     public ResponseEntity<OrderResponse> update(@PathVariable @Min(1) Long id,
-                                                @Valid @RequestBody OrderUpdateRequest req) {
-        return orderPort.findById(id)
-                .map(existing -> {
-                    existing.setStatus(req.status());
-                    existing.setPaymentMethod(req.paymentMethod());
-                    existing.setRequestedDeliveryDate(req.requestedDeliveryDate());
-                    existing.setDeliveryFlexibility(req.deliveryFlexibility());
-                    existing.setDeliverySlotStart(req.deliverySlotStart());
-                    existing.setDeliverySlotEnd(req.deliverySlotEnd());
-                    existing.setNotes(req.notes());
-                    Order updated = orderPort.save(existing);
-                    return ResponseEntity.ok(OrderResponse.from(updated));
-                })
-                .orElse(ResponseEntity.notFound().build());
-    }
-
-    // --- Delete order ---
+                                                @Valid @RequestBody OrderUpdateRequest req,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return write(id, ETags.ifMatchVersion(ifMatch, "order", id), req.changes());
+    }
+
+    // --- JSON Merge Patch: only the members sent are written ---
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<OrderResponse> patch(@PathVariable @Min(1) Long id,
+                                               @RequestBody JsonNode patch,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Map<String, Object> changes;
+        try {
+            changes = MergePatch.changes(patch, PATCHABLE, NOT_NULL, objectMapper, member -> null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (changes.isEmpty()) {
+            return orderPort.findById(id)
+                    .map(o -> ResponseEntity.ok().eTag(ETags.of("order", id, o.getVersion())).body(OrderResponse.from(o)))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        return write(id, ETags.ifMatchVersion(ifMatch, "order", id), changes);
+    }
+
+    private ResponseEntity<OrderResponse> write(Long id, Long expected, Map<String, Object> changes) {
+        if (!(changes.get("status") instanceof Order.OrderStatus next)) {
+            return updated(id, orderPort.updateIfVersion(id, expected, changes));
+        }
+
+        // a status change: the current status decides what happens to the stock, and the
+        // version read here makes sure a concurrent change cannot slip past that decision
+        return tx.execute(status -> {
+            Optional<Order> existing = orderPort.findById(id);
+            if (existing.isEmpty()) return ResponseEntity.notFound().<OrderResponse>build();
+            Order order = existing.get();
+            if (expected != null && !expected.equals(order.getVersion())) return ResponseEntity.status(HttpStatus.CONFLICT).<OrderResponse>build();
+            boolean wasReleased = OrderStockReservations.RELEASED.contains(order.getStatus());
+            boolean releasing = OrderStockReservations.RELEASED.contains(next);
+            // the stock went back to the ledger and may be sold since; reopening needs a new order
+            if (wasReleased && !releasing) return ResponseEntity.status(HttpStatus.CONFLICT).<OrderResponse>build();
+            WriteResult<Order> r = orderPort.updateIfVersion(id, order.getVersion(), changes);
+            if (r.status() == WriteResult.Status.APPLIED && releasing && !wasReleased) stock.releaseAfterCommit(r.entity());
+            return updated(id, r);
+        });
+    }
+
+    // --- Delete order; its lines are read first so reserved stock can be given back ---
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id) {
-        if (orderPort.findById(id).isPresent()) {
-            orderPort.deleteById(id);
-            return ResponseEntity.noContent().build();
+    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expected = ETags.ifMatchVersion(ifMatch, "order", id);
+        return tx.execute(status -> {
+            Optional<Order> existing = orderPort.findById(id);
+            if (existing.isEmpty()) return ResponseEntity.notFound().<Void>build();
+            Order order = existing.get();
+            if (expected != null && !expected.equals(order.getVersion())) return ResponseEntity.status(HttpStatus.CONFLICT).<Void>build();
+            return switch (orderPort.deleteIfVersion(id, order.getVersion()).status()) {
+                case APPLIED -> {
+                    if (!OrderStockReservations.RELEASED.contains(order.getStatus())) stock.releaseAfterCommit(order);
+                    yield ResponseEntity.noContent().<Void>build();
+                }
+                case NOT_FOUND -> ResponseEntity.notFound().<Void>build();
+                case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).<Void>build();
+            };
+        });
+    }
+
+    private static ResponseEntity<OrderResponse> updated(Long id, WriteResult<Order> r) {
+        return switch (r.status()) {
+            case APPLIED -> ResponseEntity.ok().eTag(ETags.of("order", id, r.entity().getVersion()))
+                    .body(OrderResponse.from(r.entity()));
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
+    }
+
+    /** Unknown products and bad quantities are client errors; unavailable products conflict with the catalog */
+    private static <B> ResponseEntity<B> rejected(OrderPricing.Outcome outcome) {
+        return outcome == OrderPricing.Outcome.UNAVAILABLE
+                ? ResponseEntity.status(HttpStatus.CONFLICT).build()
+                : ResponseEntity.badRequest().build();
+    }
+
+    private String fingerprint(OrderCreateRequest req) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(req));
+            return HexFormat.of().formatHex(digest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(OrderResponse r) {
+        try {
+            return objectMapper.writeValueAsString(r);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private OrderResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return ResponseEntity.notFound().build();
     }
 }
@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 
+// totalAmount and the items' unitPrice are accepted for compatibility but replaced by OrderPricing
 public record OrderCreateRequest(
         Long customerId,
         Long addressId,
@@ -3,6 +3,8 @@ package com.souk.order.api.dto;
 import com.souk.common.domain.Order;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public record OrderUpdateRequest(
         Order.OrderStatus status,
@@ -12,4 +14,17 @@ public record OrderUpdateRequest(
         LocalTime deliverySlotStart,
         LocalTime deliverySlotEnd,
         String notes
-) {}
\ No newline at end of file
+) {
+    /** The updatable columns keyed by Order attribute; lines and amounts are not editable here. */
+    public Map<String, Object> changes() {
+        Map<String, Object> c = new LinkedHashMap<>();
+        c.put("status", status);
+        c.put("paymentMethod", paymentMethod);
+        c.put("requestedDeliveryDate", requestedDeliveryDate);
+        c.put("deliveryFlexibility", deliveryFlexibility);
+        c.put("deliverySlotStart", deliverySlotStart);
+        c.put("deliverySlotEnd", deliverySlotEnd);
+        c.put("notes", notes);
+        return c;
+    }
+}
\ No newline at end of file
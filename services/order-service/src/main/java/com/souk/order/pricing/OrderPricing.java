@@ -0,0 +1,92 @@
+package com.souk.order.pricing;
+
+import com.souk.common.adapters.availability.ScheduleSlots;
+import com.souk.common.domain.Order;
+import com.souk.common.domain.OrderItem;
+import com.souk.common.domain.Product;
+import com.souk.common.port.DataAccessPort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Prices orders from the catalog instead of the client: every line gets the current
+ * product and its price, and the order total is the sum of the lines. All products of
+ * one or many orders are resolved with a single batched lookup (cache first).
+ */
+@Component
+public class OrderPricing {
+
+    public enum Outcome {
+        OK,
+        /** A line has no product id, or the product does not exist */
+        UNKNOWN_PRODUCT,
+        /** A line has a quantity below one */
+        INVALID_QUANTITY,
+        /** A product is switched off, or not offered on the requested date and slot */
+        UNAVAILABLE
+    }
+
+    private final DataAccessPort<Product, Long> productPort;
+
+    public OrderPricing(DataAccessPort<Product, Long> productPort) {
+        this.productPort = productPort;
+    }
+
+    /** Every product referenced by {@code orders}, in one round trip. */
+    public Map<Long, Product> loadProducts(Collection<Order> orders) {
+        var ids = orders.stream()
+                .filter(o -> o.getItems() != null)
+                .flatMap(o -> o.getItems().stream())
+                .map(i -> i.getProduct() != null ? i.getProduct().getId() : null)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product p : productPort.findAllById(ids)) byId.put(p.getId(), p);
+        return byId;
+    }
+
+    /**
+     * Validates and prices {@code order} in place against {@code products}. Lines without
+     * a delivery date are only checked against the {@code available} flag.
+     */
+    public Outcome price(Order order, Map<Long, Product> products) {
+        BigDecimal total = BigDecimal.ZERO;
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                Product product = item.getProduct() != null ? products.get(item.getProduct().getId()) : null;
+                if (product == null) return Outcome.UNKNOWN_PRODUCT;
+                if (item.getQuantity() == null) item.setQuantity(1);
+                if (item.getQuantity() < 1) return Outcome.INVALID_QUANTITY;
+                if (!Boolean.TRUE.equals(product.getAvailable()) || !onSchedule(order, item, product)) return Outcome.UNAVAILABLE;
+
+                item.setProduct(product);
+                item.setUnitPrice(product.getPrice());
+                total = total.add(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            }
+        }
+        order.setTotalAmount(total.setScale(2, RoundingMode.HALF_UP));
+        return Outcome.OK;
+    }
+
+    /** One order priced on its own: a single lookup for all of its lines. */
+    public Outcome price(Order order) {
+        return price(order, loadProducts(List.of(order)));
+    }
+
+    private static boolean onSchedule(Order order, OrderItem item, Product product) {
+        LocalDate date = item.getRequestedDeliveryDate() != null ? item.getRequestedDeliveryDate() : order.getRequestedDeliveryDate();
+        if (date == null || product.getSchedule() == null || !product.getSchedule().isObject()) return true;
+        LocalTime time = item.getDeliverySlotStart() != null ? item.getDeliverySlotStart() : order.getDeliverySlotStart();
+        return ScheduleSlots.find(product.getSchedule(), date, time).isPresent();
+    }
+}
@@ -0,0 +1,133 @@
+package com.souk.order.stock;
+
+import com.souk.common.adapters.availability.ScheduleSlots;
+import com.souk.common.domain.Order;
+import com.souk.common.domain.OrderItem;
+import com.souk.common.domain.Product;
+import com.souk.common.port.StockLedgerPort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reserves stock in the {@link StockLedgerPort} for each order line that falls into a
+ * schedule window with a {@code stock} limit, and gives it back when the order is
+ * cancelled, refunded or deleted. Lines without a date or outside any window are not
+ * limited.
+ * <p>
+ * Ledger updates commit on their own, so checkouts of one hot slot never wait on each
+ * other's order transaction. They are tied to that transaction by compensation instead:
+ * reservations are released again if it rolls back, releases only happen once it has
+ * committed. A crash between the two is repaired by {@code StockLedgerReconciler}.
+ */
+@Component
+public class OrderStockReservations {
+
+    /** Statuses whose stock has been returned to the ledger */
+    public static final Set<Order.OrderStatus> RELEASED = EnumSet.of(Order.OrderStatus.CANCELLED, Order.OrderStatus.REFUNDED);
+
+    private final StockLedgerPort ledger;
+
+    public OrderStockReservations(StockLedgerPort ledger) {
+        this.ledger = ledger;
+    }
+
+    /**
+     * Reserves every limited line or none: on the first sold-out slot the lines already
+     * reserved are released again and false is returned. Expects the order to be priced
+     * already, so each line carries its full product.
+     */
+    public boolean reserve(Order order) {
+        return reserve(List.of(order));
+    }
+
+    /**
+     * {@link #reserve(Order)} for several orders at once, all or nothing. Inside a
+     * transaction, what was reserved is released again unless that transaction commits.
+     */
+    public boolean reserve(List<Order> orders) {
+        List<Order> held = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (!reserveLines(order)) {
+                held.forEach(this::release);
+                return false;
+            }
+            held.add(order);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) held.forEach(OrderStockReservations.this::release);
+                }
+            });
+        }
+        return true;
+    }
+
+    /** Returns the stock held by {@code order}'s lines. */
+    public void release(Order order) {
+        if (order.getItems() == null) return;
+        for (OrderItem item : order.getItems()) release(dateOf(order, item), item);
+    }
+
+    /**
+     * {@link #release(Order)} once the current transaction has committed (right away
+     * without one), so a rolled back cancel or delete never gives the stock back.
+     */
+    public void releaseAfterCommit(Order order) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(order);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(order);
+            }
+        });
+    }
+
+    private boolean reserveLines(Order order) {
+        if (order.getItems() == null || order.getItems().isEmpty()) return true;
+        List<OrderItem> reserved = new ArrayList<>();
+        for (OrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            if (product == null || product.getSchedule() == null) continue;
+            LocalDate date = dateOf(order, item);
+            var slot = ScheduleSlots.find(product.getSchedule(), date, timeOf(order, item));
+            if (slot.isEmpty() || slot.get().stock() == null) continue;
+
+            int qty = item.getQuantity() != null ? item.getQuantity() : 1;
+            if (!ledger.reserve(product.getId(), date, slot.get().start(), slot.get().stock(), qty)) {
+                for (OrderItem r : reserved) release(dateOf(order, r), r);
+                return false;
+            }
+            item.setReservedSlotStart(slot.get().start());
+            reserved.add(item);
+        }
+        return true;
+    }
+
+    private void release(LocalDate date, OrderItem item) {
+        if (item.getReservedSlotStart() == null) return;
+        int qty = item.getQuantity() != null ? item.getQuantity() : 1;
+        ledger.release(item.getProduct().getId(), date, item.getReservedSlotStart(), qty);
+        item.setReservedSlotStart(null);
+    }
+
+    private static LocalDate dateOf(Order order, OrderItem item) {
+        return item.getRequestedDeliveryDate() != null ? item.getRequestedDeliveryDate() : order.getRequestedDeliveryDate();
+    }
+
+    private static LocalTime timeOf(Order order, OrderItem item) {
+        return item.getDeliverySlotStart() != null ? item.getDeliverySlotStart() : order.getDeliverySlotStart();
+    }
+}
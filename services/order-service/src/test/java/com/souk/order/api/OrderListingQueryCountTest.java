@@ -0,0 +1,104 @@
+package com.souk.order.api;
+
+import com.souk.common.adapters.jpa.OrderJpaAdapter;
+import com.souk.common.domain.Customer;
+import com.souk.common.domain.Order;
+import com.souk.common.domain.OrderItem;
+import com.souk.common.domain.Product;
+import com.souk.common.port.DataAccessPort.Direction;
+import com.souk.common.port.KeysetPage;
+import com.souk.order.api.dto.OrderResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A page of orders, with everything {@link OrderResponse} reads, costs the same number
+ * of statements whatever its size: the keyset ids, then one fetch-joined load.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"})
+@Import(OrderJpaAdapter.class)
+class OrderListingQueryCountTest {
+
+    private static final int ORDERS = 500;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderJpaAdapter orders;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @BeforeEach
+    void seed() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            Product p = new Product();
+            p.setName("Dish " + i);
+            p.setSku("SKU-" + i);
+            p.setPrice(new BigDecimal("9.50"));
+            p.setVendorId(1L);
+            p.setAvailable(true);
+            products.add(em.persist(p));
+        }
+        for (int c = 0; c < ORDERS / 10; c++) {
+            Customer customer = new Customer();
+            customer.setFirstName("First" + c);
+            customer.setLastName("Last" + c);
+            customer.setEmail("customer" + c + "@example.com");
+            em.persist(customer);
+            for (int o = 0; o < 10; o++) {
+                Order order = new Order();
+                order.setCustomer(customer);
+                order.setTotalAmount(new BigDecimal("28.50"));
+                List<OrderItem> items = new ArrayList<>();
+                for (Product p : products) {
+                    OrderItem item = new OrderItem();
+                    item.setOrder(order);
+                    item.setProduct(p);
+                    item.setUnitPrice(p.getPrice());
+                    items.add(item);
+                }
+                order.setItems(items);
+                em.persist(order);
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void pageSizeDoesNotChangeTheStatementCount() {
+        assertThat(statementsToList(10)).isEqualTo(2);
+        assertThat(statementsToList(ORDERS)).isEqualTo(2);
+    }
+
+    private long statementsToList(int limit) {
+        em.clear();
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        KeysetPage<Order, Long> page = orders.findPage(null, limit, Direction.ASC);
+        List<OrderResponse> body = page.items().stream().map(OrderResponse::from).toList();
+
+        assertThat(body).hasSize(limit);
+        assertThat(body).allSatisfy(r -> assertThat(r.items()).hasSize(ITEMS_PER_ORDER));
+        return stats.getPrepareStatementCount();
+    }
+}
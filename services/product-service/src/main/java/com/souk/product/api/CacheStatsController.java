@@ -0,0 +1,29 @@
+package com.souk.product.api;
+
+import com.souk.common.adapters.cache.CachingDataAccessAdapter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheStatsController {
+
+    private final ObjectProvider<CachingDataAccessAdapter<?, ?>> caches;
+
+    public CacheStatsController(ObjectProvider<CachingDataAccessAdapter<?, ?>> caches) {
+        this.caches = caches;
+    }
+
+    /** Hit/miss/load counters plus per-key coalescing counts for every read-through cache */
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        caches.orderedStream().forEach(c -> out.put(c.name(), c.stats().snapshot()));
+        return out;
+    }
+}
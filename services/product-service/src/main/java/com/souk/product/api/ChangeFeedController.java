@@ -0,0 +1,37 @@
+package com.souk.product.api;
+
+import com.souk.common.port.ChangeFeedPort;
+import com.souk.common.port.ChangeFeedPort.Change;
+import com.souk.common.port.KeysetPage;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeFeedController {
+
+    private final ChangeFeedPort changeFeed;
+
+    public ChangeFeedController(ChangeFeedPort changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Entity writes (products, vendors, orders, ...) after {@code since}, oldest first. The
+     * cursor to resume from is the last item's {@code cursor}, also returned in X-Next-Cursor.
+     */
+    @GetMapping
+    public ResponseEntity<List<Change>> since(@RequestParam(value = "since", required = false, defaultValue = "0") long since,
+                                              @RequestParam(value = "limit", required = false) Integer limit) {
+        List<Change> changes = changeFeed.since(since, KeysetPage.clampLimit(limit));
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).cursor();
+        return ResponseEntity.ok()
+                .header(KeysetPage.NEXT_CURSOR_HEADER, String.valueOf(next))
+                .body(changes);
+    }
+}
@@ -0,0 +1,252 @@
+package com.souk.product.api;
+
+import com.souk.common.adapters.media.UploadLayout;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Serves files under the uploads directory at {@code /uploads/**}, without copying them
+ * through the JVM heap: a whole file or a single range is handed to the connector's
+ * sendfile when it offers one (Tomcat NIO does), otherwise streamed with
+ * {@link FileChannel#transferTo}. Range requests, including multiple ranges
+ * ({@code multipart/byteranges}), let video players seek.
+ * <p>
+ * Files named by a hash of their content (deduplicated uploads under {@code blobs/} and
+ * image variants) are cached as immutable, with the hash as their strong ETag. Everything
+ * else, including previews, whose names hash the source URL rather than the bytes, gets an
+ * ETag from size and modification time and the hour-long cache period the static resource
+ * handler used to give them.
+ */
+@RestController
+public class MediaFileController {
+
+    private static final String PREFIX = "/uploads/";
+    private static final String VARIANTS_DIR = "variants";
+    private static final Pattern HASHED = Pattern.compile("[0-9a-f]{32,64}(-w\\d+)?");
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+    private static final UrlPathHelper PATHS = new UrlPathHelper();
+
+    // request attributes of Tomcat's sendfile support, named as in org.apache.catalina.Globals
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    /** Below this a plain write is as cheap as setting up sendfile (Tomcat's DefaultServlet uses the same cut-off) */
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private final Path uploadsDir;
+
+    public MediaFileController(@Value("${media.uploads-dir:${user.home}/souk-uploads}") String uploadsDir) {
+        this.uploadsDir = Path.of(uploadsDir).toAbsolutePath().normalize();
+    }
+
+    private record Span(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(PATHS.getPathWithinApplication(request));
+        BasicFileAttributes attrs;
+        try {
+            attrs = file != null ? Files.readAttributes(file, BasicFileAttributes.class) : null;
+        } catch (NoSuchFileException e) {
+            attrs = null;
+        }
+        if (attrs == null || !attrs.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        long length = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+        boolean hashed = contentAddressed(file) && HASHED.matcher(stem).matches();
+        String etag = "\"" + (hashed ? stem : Long.toHexString(length) + "-" + Long.toHexString(modified)) + "\"";
+        String contentType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (hashed ? IMMUTABLE : REVALIDATE).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        // sets ETag and Last-Modified, and answers 304 / 412 from the conditional headers
+        if (new ServletWebRequest(request, response).checkNotModified(etag, modified)) return;
+
+        boolean head = RequestMethod.HEAD.name().equals(request.getMethod());
+        List<Span> spans = ranges(request, etag, modified, length);
+        if (spans == null) {
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!head) send(request, response, file, new Span(0, length - 1));
+        } else if (spans.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        } else if (spans.size() == 1) {
+            Span span = spans.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(span, length));
+            response.setContentLengthLong(span.length());
+            if (!head) send(request, response, file, span);
+        } else {
+            sendMultipart(response, file, spans, contentType, length, head);
+        }
+    }
+
+    // ------------------------------------------------------------
+
+    /** The file for a request path, or null when it is outside the uploads directory or not meant to be served. */
+    private Path resolve(String path) {
+        if (!path.startsWith(PREFIX)) return null;
+        Path file = uploadsDir.resolve(path.substring(PREFIX.length())).normalize();
+        if (!file.startsWith(uploadsDir) || file.equals(uploadsDir)) return null;
+        String name = file.getFileName().toString();
+        // dot files, and downloads that are still being written
+        return name.startsWith(".") || name.endsWith(".part") ? null : file;
+    }
+
+    /** Whether the file's name is a hash of its own bytes: uploads under blobs/, and variants of any original. */
+    private boolean contentAddressed(Path file) {
+        Path parent = file.getParent();
+        return uploadsDir.relativize(file).startsWith(UploadLayout.BLOBS)
+                || (parent != null && VARIANTS_DIR.equals(parent.getFileName().toString()));
+    }
+
+    /**
+     * The requested ranges, sorted and with overlapping or adjacent ones merged; null to
+     * send the whole file (no Range, an unparseable one, or an If-Range that no longer
+     * matches), empty when none of them lies within the file.
+     */
+    private static List<Span> ranges(HttpServletRequest request, String etag, long modified, long length) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request, etag, modified)) return null;
+        List<HttpRange> requested;
+        try {
+            requested = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        List<Span> spans = new ArrayList<>();
+        for (HttpRange r : requested) {
+            try {
+                spans.add(new Span(r.getRangeStart(length), r.getRangeEnd(length)));
+            } catch (IllegalArgumentException unsatisfiable) {
+                // starts beyond the end of the file; the others may still be served
+            }
+        }
+        spans.sort(Comparator.comparingLong(Span::start));
+        List<Span> merged = new ArrayList<>();
+        for (Span s : spans) {
+            Span last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && s.start() <= last.end() + 1) {
+                merged.set(merged.size() - 1, new Span(last.start(), Math.max(last.end(), s.end())));
+            } else {
+                merged.add(s);
+            }
+        }
+        return merged;
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long modified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(etag);
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == modified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void sendMultipart(HttpServletResponse response, Path file, List<Span> spans,
+                                      String contentType, long length, boolean head) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(spans.size());
+        long total = 0;
+        for (Span span : spans) {
+            byte[] h = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(span, length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(h);
+            total += h.length + span.length();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        total += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(total);
+        if (head) return;
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < spans.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(in, spans.get(i), channel);
+            }
+        }
+        out.write(closing);
+    }
+
+    /** One contiguous span as the whole body: sendfile when the connector offers it, else transferTo. */
+    private static void send(HttpServletRequest request, HttpServletResponse response, Path file, Span span) throws IOException {
+        if (span.length() >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, span.start());
+            request.setAttribute(SENDFILE_END, span.end() + 1);
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(in, span, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void transfer(FileChannel in, Span span, WritableByteChannel out) throws IOException {
+        long pos = span.start();
+        long end = span.end() + 1;
+        while (pos < end) {
+            long n = in.transferTo(pos, end - pos, out);
+            if (n <= 0) throw new EOFException("File shrank while being served");
+            pos += n;
+        }
+    }
+
+    private static String contentRange(Span span, long length) {
+        return "bytes " + span.start() + "-" + span.end() + "/" + length;
+    }
+}
@@ -0,0 +1,34 @@
+package com.souk.product.api;
+
+import com.souk.common.adapters.media.MediaDiskJanitor;
+import com.souk.common.adapters.media.MediaValidationWorker;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/media")
+public class MediaStatsController {
+
+    private final ObjectProvider<MediaValidationWorker> worker;
+    private final ObjectProvider<MediaDiskJanitor> janitor;
+
+    public MediaStatsController(ObjectProvider<MediaValidationWorker> worker, ObjectProvider<MediaDiskJanitor> janitor) {
+        this.worker = worker;
+        this.janitor = janitor;
+    }
+
+    /** Validation pool counters and upload disk usage, each when enabled; 404 when neither is */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        worker.ifAvailable(w -> out.put("validation", w.snapshot()));
+        janitor.ifAvailable(j -> out.put("disk", j.snapshot()));
+        return out.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(out);
+    }
+}
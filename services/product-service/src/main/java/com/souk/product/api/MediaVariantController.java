@@ -0,0 +1,82 @@
+package com.souk.product.api;
+
+import com.souk.common.adapters.media.ImageVariants;
+import com.souk.common.adapters.media.ImageVariants.Variant;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+public class MediaVariantController {
+
+    /** Upload names are content hashes or timestamps and never rewritten, so their variants never change either */
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final ObjectProvider<ImageVariants> variants;
+
+    public MediaVariantController(ObjectProvider<ImageVariants> variants) {
+        this.variants = variants;
+    }
+
+    /**
+     * A product upload downscaled to one of the configured widths (e.g. /uploads/products/07/7/x.jpg/w480),
+     * rendered on first request. The original is returned when it is already narrower or
+     * not a format that can be resized.
+     */
+    @GetMapping("/uploads/products/{shard}/{productId}/{file}/w{width}")
+    public ResponseEntity<Resource> variant(@PathVariable String shard,
+                                            @PathVariable String productId,
+                                            @PathVariable String file,
+                                            @PathVariable int width,
+                                            WebRequest request) throws IOException {
+        return serve(width, request, "products", shard, productId, file);
+    }
+
+    /** Same, for uploads stored by content hash */
+    @GetMapping("/uploads/blobs/{shard}/{file}/w{width}")
+    public ResponseEntity<Resource> blobVariant(@PathVariable String shard,
+                                                @PathVariable String file,
+                                                @PathVariable int width,
+                                                WebRequest request) throws IOException {
+        return serve(width, request, "blobs", shard, file);
+    }
+
+    /** Same, for uploads stored before product directories were sharded */
+    @GetMapping("/uploads/products/{productId}/{file}/w{width}")
+    public ResponseEntity<Resource> legacyVariant(@PathVariable String productId,
+                                                  @PathVariable String file,
+                                                  @PathVariable int width,
+                                                  WebRequest request) throws IOException {
+        return serve(width, request, "products", productId, file);
+    }
+
+    private ResponseEntity<Resource> serve(int width, WebRequest request, String... path) throws IOException {
+        ImageVariants v = variants.getIfAvailable();
+        if (v == null || !v.supportsWidth(width)) return ResponseEntity.notFound().build();
+        Optional<Path> original = v.upload(path);
+        if (original.isEmpty()) return ResponseEntity.notFound().build();
+
+        Variant variant = v.variant(original.get(), width);
+        if (request.checkNotModified(variant.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(variant.etag()).cacheControl(IMMUTABLE).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(variant.etag())
+                .cacheControl(IMMUTABLE)
+                .contentType(MediaType.parseMediaType(variant.contentType()))
+                .body(new FileSystemResource(variant.file()));
+    }
+}
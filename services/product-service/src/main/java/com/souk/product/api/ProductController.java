@@ -1,26 +1,66 @@
 package com.souk.product.api;
 
+import com.souk.common.adapters.media.MediaBlobStore;
+import com.souk.common.adapters.media.MediaValidationWorker;
 import com.souk.common.domain.Product;
 import com.souk.common.domain.ProductMedia;
 import com.souk.common.domain.ProductMedia.ValidationStatus;
 import com.souk.common.domain.ProductMedia.StorageProvider;
 import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.DataAccessPort.Direction;
+import com.souk.common.port.DataAccessPort.WriteResult;
+import com.souk.common.port.ETags;
+import com.souk.common.port.KeysetPage;
+import com.souk.common.port.MergePatch;
 import com.souk.product.api.dto.ProductCreateRequest;
 import com.souk.product.api.dto.ProductResponse;
 import com.souk.product.api.dto.ProductUpdateRequest;
+import com.souk.product.bulk.ProductImporter;
+import com.souk.common.port.ProductAvailabilityPort;
+import com.souk.common.port.ProductFacetPort;
+import com.souk.common.port.ProductFacetPort.FacetResult;
 import com.souk.common.port.ProductQueryPort;
+import com.souk.common.port.SearchPort;
+import com.souk.common.port.TableVersionPort;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/products")
@@ -29,35 +69,202 @@ public class ProductController {
     private final DataAccessPort<Product, Long> productPort;
     private final ProductQueryPort productQueryPort;
     private final DataAccessPort<ProductMedia, Long> mediaPort;
+    private final SearchPort<Product> productSearch;
+    private final ProductFacetPort productFacets;
+    private final ProductAvailabilityPort productAvailability;
+    private final TableVersionPort tableVersions;
+    private final ObjectMapper objectMapper;
+    private final ProductImporter importer;
+    private final ObjectProvider<MediaValidationWorker> mediaValidation;
+    private final MediaBlobStore blobStore;
+
+    /** Products per keyset page of the export (media loaded with each page) */
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    /** Merge-patchable members and the Product attribute types they set */
+    private static final Map<String, Class<?>> PATCHABLE = Map.of(
+            "name", String.class, "sku", String.class, "price", BigDecimal.class, "vendorId", Long.class,
+            "available", Boolean.class, "categoryDetails", JsonNode.class, "schedule", JsonNode.class);
+    private static final Set<String> NOT_NULL = Set.of("name", "sku", "price", "vendorId", "available");
+    private static final Map<String, Class<?>> BULK_PATCHABLE = Map.of("available", Boolean.class);
 
     public ProductController(DataAccessPort<Product, Long> productPort,
                              ProductQueryPort productQueryPort,
-                             DataAccessPort<ProductMedia, Long> mediaPort) {
+                             DataAccessPort<ProductMedia, Long> mediaPort,
+                             SearchPort<Product> productSearch,
+                             ProductFacetPort productFacets,
+                             ProductAvailabilityPort productAvailability,
+                             TableVersionPort tableVersions,
+                             ObjectMapper objectMapper,
+                             ProductImporter importer,
+                             ObjectProvider<MediaValidationWorker> mediaValidation,
+                             MediaBlobStore blobStore) {
         this.productPort = productPort;
         this.productQueryPort = productQueryPort;
         this.mediaPort = mediaPort;
+        this.productSearch = productSearch;
+        this.productFacets = productFacets;
+        this.productAvailability = productAvailability;
+        this.tableVersions = tableVersions;
+        this.objectMapper = objectMapper;
+        this.importer = importer;
+        this.mediaValidation = mediaValidation;
+        this.blobStore = blobStore;
     }
 
     // ------------------------------------------------------------
     // 🔹 PRODUCT CRUD ENDPOINTS
     // ------------------------------------------------------------
 
-    /** Get all products */
+    /**
+     * List products one keyset page at a time; the next cursor is returned in X-Next-Cursor.
+     * Any facet filter (repeatable, OR within a facet, AND across facets) switches to the
+     * in-memory facet index and adds the match count in X-Total-Count. Tagged with the
+     * product table version, so If-None-Match is answered before any query runs.
+     */
     @GetMapping
-    public List<ProductResponse> listAll() {
-        return productPort.findAll()
-                .stream()
+    public ResponseEntity<List<ProductResponse>> listAll(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cuisine", required = false) List<String> cuisine,
+            @RequestParam(value = "category", required = false) List<String> category,
+            @RequestParam(value = "subcategory", required = false) List<String> subcategory,
+            @RequestParam(value = "region", required = false) List<String> region,
+            @RequestParam(value = "vendorId", required = false) List<String> vendorId,
+            @RequestParam(value = "available", required = false) List<String> available,
+            WebRequest request
+    ) {
+        String etag = ETags.of("products", null, tableVersions.version(Product.class));
+        if (request.checkNotModified(etag)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+
+        Map<String, List<String>> filters = facetFilters(cuisine, category, subcategory, region, vendorId, available);
+        if (!filters.isEmpty()) {
+            if (!productFacets.isReady()) return ResponseEntity.status(503).build();
+            FacetResult r = productFacets.query(filters, after, KeysetPage.clampLimit(limit));
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag).header(TOTAL_COUNT_HEADER, String.valueOf(r.total()));
+            if (r.nextCursor() != null) ok.header(KeysetPage.NEXT_CURSOR_HEADER, String.valueOf(r.nextCursor()));
+            return ok.body(productPort.findAllById(r.ids()).stream().map(ProductResponse::from).toList());
+        }
+
+        KeysetPage<Product, Long> page = productPort.findPage(after, KeysetPage.clampLimit(limit), Direction.ASC);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (page.hasNext()) ok.header(KeysetPage.NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        return ok.body(page.items().stream().map(ProductResponse::from).toList());
+    }
+
+    /** Match count plus per-value counts for every facet under the given filters */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> facets(
+            @RequestParam(value = "cuisine", required = false) List<String> cuisine,
+            @RequestParam(value = "category", required = false) List<String> category,
+            @RequestParam(value = "subcategory", required = false) List<String> subcategory,
+            @RequestParam(value = "region", required = false) List<String> region,
+            @RequestParam(value = "vendorId", required = false) List<String> vendorId,
+            @RequestParam(value = "available", required = false) List<String> available
+    ) {
+        if (!productFacets.isReady()) return ResponseEntity.status(503).build();
+        FacetResult r = productFacets.query(facetFilters(cuisine, category, subcategory, region, vendorId, available), null, 0);
+        return ResponseEntity.ok(Map.of("total", r.total(), "counts", r.counts()));
+    }
+
+    /**
+     * Products orderable at {@code at} (ISO date-time with offset, default now), or at any
+     * moment of the slot {@code from}-{@code to} on {@code date} in {@code tz}. Paged by id
+     * like {@link #listAll}; the match count is returned in X-Total-Count.
+     */
+    @GetMapping("/available")
+    public ResponseEntity<List<ProductResponse>> available(
+            @RequestParam(value = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime at,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime to,
+            @RequestParam(value = "tz", required = false, defaultValue = "UTC") String tz,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        if (!productAvailability.isReady()) return ResponseEntity.status(503).build();
+        Instant start, end;
+        if (date != null || from != null || to != null) {
+            if (at != null || date == null || from == null || to == null) return ResponseEntity.badRequest().build();
+            ZoneId zone;
+            try {
+                zone = ZoneId.of(tz);
+            } catch (DateTimeException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            start = date.atTime(from).atZone(zone).toInstant();
+            // a slot ending at or before its start runs past midnight
+            end = (to.isAfter(from) ? date : date.plusDays(1)).atTime(to).atZone(zone).toInstant();
+        } else {
+            start = end = at != null ? at.toInstant() : Instant.now();
+        }
+
+        List<Long> ids = productAvailability.availableBetween(start, end);
+        int lim = KeysetPage.clampLimit(limit);
+        List<Long> page = ids.stream().filter(id -> after == null || id > after).limit(lim).toList();
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().header(TOTAL_COUNT_HEADER, String.valueOf(ids.size()));
+        if (page.size() == lim && !page.isEmpty() && ids.get(ids.size() - 1) > page.get(page.size() - 1)) {
+            ok.header(KeysetPage.NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1)));
+        }
+        return ok.body(productPort.findAllById(page).stream().map(ProductResponse::from).toList());
+    }
+
+    /** Stream the whole catalog as newline-delimited JSON, one keyset page at a time */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            int[] n = {0};
+            productPort.streamAll(EXPORT_FETCH_SIZE, p -> {
+                try {
+                    buffered.write(objectMapper.writeValueAsBytes(ProductResponse.from(p)));
+                    buffered.write('\n');
+                    if (++n[0] % EXPORT_FETCH_SIZE == 0) buffered.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    /** Full-text search over name, SKU and category details (prefix matching, BM25 ranked) */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> search(@RequestParam("q") String q,
+                                                        @RequestParam(value = "limit", required = false) Integer limit) {
+        if (!productSearch.isReady()) return ResponseEntity.status(503).build();
+        return ResponseEntity.ok(productSearch.search(q, KeysetPage.clampLimit(limit)).stream()
                 .map(ProductResponse::from)
-                .toList();
+                .toList());
     }
 
-    /** Get product by ID */
-    @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getById(@PathVariable @Min(1) Long id) {
-        return productPort.findById(id)
+    /** Get several products in one call (cache first, then one batched query); unknown ids are skipped */
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductResponse>> getByIds(@RequestParam("ids") List<Long> ids) {
+        if (ids.size() > KeysetPage.MAX_LIMIT) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(productPort.findAllById(ids).stream()
                 .map(ProductResponse::from)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .toList());
+    }
+
+    /**
+     * Get product by ID, tagged with its version. schedule_updated is refreshed by MySQL
+     * on every row update, so it doubles as the product's last-modified time.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductResponse> getById(@PathVariable @Min(1) Long id, WebRequest request) {
+        Optional<Product> found = productPort.findById(id);
+        if (found.isEmpty()) return ResponseEntity.notFound().build();
+        LocalDateTime modified = found.get().getScheduleUpdated();
+        String etag = ETags.of("product", id, found.get().getVersion());
+        boolean fresh = modified != null
+                ? request.checkNotModified(etag, ETags.epochMillis(modified))
+                : request.checkNotModified(etag);
+        if (fresh) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (modified != null) ok.lastModified(ETags.epochMillis(modified));
+        return ok.body(ProductResponse.from(found.get()));
     }
 
     /** Get product by SKU */
@@ -79,35 +286,127 @@ public class ProductController {
                 .body(ProductResponse.from(saved));
     }
 
-    /** Update an existing product */
+    /**
+     * Bulk upsert by SKU from a CSV (header row of field names) or NDJSON body. The body is
+     * streamed, and every chunk of rows commits on its own, so a failure late in the file
+     * keeps the chunks before it. Rows that fail validation or the write are listed in the
+     * report with their row number; the rest are imported. Existing products keep their media.
+     */
+    @PostMapping(value = "/import", consumes = {ProductImporter.CSV, ProductImporter.NDJSON})
+    public ResponseEntity<ProductImporter.Report> importProducts(InputStream body,
+                                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        InputStreamReader in = new InputStreamReader(body, StandardCharsets.UTF_8);
+        try {
+            return ResponseEntity.ok(contentType.isCompatibleWith(MediaType.parseMediaType(ProductImporter.CSV))
+                    ? importer.importCsv(in)
+                    : importer.importNdjson(in));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Update a product in one conditional UPDATE; send the ETag from a GET as If-Match to
+     * get 409 instead of overwriting someone else's change. Replacing the media list still
+     * loads the product, with the same version check applied on save.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> update(@PathVariable @Min(1) Long id,
-                                                  @RequestBody @Valid ProductUpdateRequest req) {
-        return productPort.findById(id)
-                .map(existing -> {
-                    Product updated = req.applyTo(existing);
-                    Product saved = productPort.save(updated);
-                    return ResponseEntity.ok(ProductResponse.from(saved));
-                })
-                .orElse(ResponseEntity.<ProductMedia>notFound().build());
+                                                  @RequestBody @Valid ProductUpdateRequest req,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expected = ETags.ifMatchVersion(ifMatch, "product", id);
+        if (req.replacesMedia() || req.changes().isEmpty()) {
+            Optional<Product> existing = productPort.findForWrite(id);
+            if (existing.isEmpty()) return ResponseEntity.notFound().build();
+            if (expected != null && !expected.equals(existing.get().getVersion())) return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            try {
+                Product saved = productPort.save(req.applyTo(existing.get()));
+                return ResponseEntity.ok().eTag(ETags.of("product", id, saved.getVersion())).body(ProductResponse.from(saved));
+            } catch (OptimisticLockingFailureException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+        }
+
+        return updated(id, productPort.updateIfVersion(id, expected, req.changes()));
+    }
+
+    /**
+     * JSON Merge Patch: only the members sent are written, in one conditional UPDATE. An
+     * object for categoryDetails or schedule merges into the stored document, which is read
+     * first, past the cache, and pins the version the UPDATE expects.
+     */
+    @PatchMapping(value = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<ProductResponse> patch(@PathVariable @Min(1) Long id,
+                                                 @RequestBody JsonNode patch,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expected = ETags.ifMatchVersion(ifMatch, "product", id);
+        Product current = null;
+        if (MergePatch.mergesDocuments(patch, PATCHABLE)) {
+            Optional<Product> found = productPort.findForWrite(id);
+            if (found.isEmpty()) return ResponseEntity.notFound().build();
+            current = found.get();
+            if (expected != null && !expected.equals(current.getVersion())) return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            expected = current.getVersion();
+        }
+        Product base = current;
+        Map<String, Object> changes;
+        try {
+            changes = MergePatch.changes(patch, PATCHABLE, NOT_NULL, objectMapper,
+                    member -> "schedule".equals(member) ? base.getSchedule() : base.getCategoryDetails());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (changes.isEmpty()) {
+            return productPort.findById(id)
+                    .map(p -> ResponseEntity.ok().eTag(ETags.of("product", id, p.getVersion())).body(ProductResponse.from(p)))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        return updated(id, productPort.updateIfVersion(id, expected, changes));
+    }
+
+    /**
+     * Set-based merge patch over every product of one vendor, e.g. {@code {"available": false}}
+     * to take a vendor's catalogue offline in a single UPDATE. Only {@code available} can be
+     * patched this way; the number of products changed is returned.
+     */
+    @PatchMapping(consumes = MergePatch.MEDIA_TYPE)
+    public ResponseEntity<Map<String, Object>> patchByVendor(@RequestParam("vendorId") @Min(1) Long vendorId,
+                                                             @RequestBody JsonNode patch) {
+        Map<String, Object> changes;
+        try {
+            changes = MergePatch.changes(patch, BULK_PATCHABLE, BULK_PATCHABLE.keySet(), objectMapper, member -> null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (changes.isEmpty()) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(Map.of("updated", productPort.updateWhere("vendorId", vendorId, changes).size()));
+    }
+
+    private static ResponseEntity<ProductResponse> updated(Long id, WriteResult<Product> r) {
+        return switch (r.status()) {
+            case APPLIED -> ResponseEntity.ok().eTag(ETags.of("product", id, r.entity().getVersion()))
+                    .body(ProductResponse.from(r.entity()));
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
     }
 
-    /** Delete a product */
+    /** Delete a product in one statement; If-Match makes it conditional like {@link #update} */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id) {
-        return productPort.findById(id)
-                .map(p -> {
-                    productPort.deleteById(id);
-                    return ResponseEntity.noContent().<Void>build();
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Void> delete(@PathVariable @Min(1) Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return switch (productPort.deleteIfVersion(id, ETags.ifMatchVersion(ifMatch, "product", id)).status()) {
+            case APPLIED -> ResponseEntity.noContent().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).build();
+        };
     }
 
     // ------------------------------------------------------------
     // 🔹 PRODUCT MEDIA ENDPOINTS
     // ------------------------------------------------------------
 
-    /** Upload media (image/video) metadata for a product */
+    /** Upload media (image/video) metadata for a product; the URL is checked in the background */
     @PostMapping("/{productId}/media")
     public ResponseEntity<ProductMedia> uploadMedia(
             @PathVariable @Min(1) Long productId,
@@ -133,6 +432,7 @@ public class ProductController {
 
                     media.setValidationStatus(ValidationStatus.PENDING);
                     ProductMedia saved = mediaPort.save(media);
+                    mediaValidation.ifAvailable(w -> w.enqueue(saved.getId()));
 
                     return ResponseEntity
                             .created(URI.create("/products/" + productId + "/media/" + saved.getId()))
@@ -150,47 +450,78 @@ public class ProductController {
                 .orElseGet(()->ResponseEntity.<java.util.List<ProductMedia>>notFound().build());
     }
 
-    /** Upload media binary (multipart) and create ProductMedia with a served URL */
+    /**
+     * Upload media binary (multipart) and create ProductMedia with a served URL, queued for
+     * validation. The file is stored by content, so the same bytes uploaded for many products
+     * are kept once.
+     * <p>
+     * The servlet container spools a multipart file to a temp file before this runs, so the
+     * bytes hit the disk twice; {@code spring.servlet.multipart.max-file-size} keeps this
+     * path to small images. Videos and other large files go through {@link #uploadMediaBody}.
+     */
     @PostMapping(value = "/{productId}/media/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ProductMedia> uploadMediaFile(
             @PathVariable @Min(1) Long productId,
             @RequestPart("file") MultipartFile file,
             @RequestParam(value = "description", required = false) String description
     ) {
+        try (InputStream in = file.getInputStream()) {
+            return uploadMedia(productId, in, file.getContentType(), description);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Same as the multipart upload, with the file as the raw request body. Nothing is spooled:
+     * the body is hashed and written to its final place in a single pass as it arrives.
+     */
+    @PostMapping(value = "/{productId}/media/upload", consumes = {"image/*", "video/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ProductMedia> uploadMediaBody(
+            @PathVariable @Min(1) Long productId,
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(value = "description", required = false) String description
+    ) {
+        try {
+            return uploadMedia(productId, body, contentType, description);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private ResponseEntity<ProductMedia> uploadMedia(Long productId, InputStream in, String contentType, String description) throws IOException {
         var opt = productPort.findById(productId);
         if (opt.isEmpty()) return ResponseEntity.notFound().build();
-        var product = opt.get();
+        MediaBlobStore.Stored blob;
         try {
-            String orig = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload";
-            String safe = orig.replaceAll("[^a-zA-Z0-9._-]", "_");
-            java.nio.file.Path base = java.nio.file.Paths.get(System.getProperty("user.home"), "souk-uploads", "products", String.valueOf(productId));
-            java.nio.file.Files.createDirectories(base);
-            java.nio.file.Path dest = base.resolve(System.currentTimeMillis() + "-" + safe);
-            file.transferTo(dest.toFile());
-
-            String mediaPath = "/uploads/products/" + productId + "/" + dest.getFileName();
-
-            ProductMedia media = new ProductMedia();
-            media.setProduct(product);
-            media.setDescription(description);
-            media.setMimeType(file.getContentType());
-            media.setSizeKb((int) Math.max(1, file.getSize() / 1024));
-            if (file.getContentType() != null && file.getContentType().startsWith("video")) {
-                media.setMediaType(ProductMedia.MediaType.VIDEO);
-            } else {
-                media.setMediaType(ProductMedia.MediaType.IMAGE);
-            }
-            media.setValidationStatus(ProductMedia.ValidationStatus.PENDING);
-            media.setStorageProvider(ProductMedia.StorageProvider.LOCAL);
-            media.setMediaUrl(mediaPath);
-
-            ProductMedia saved = mediaPort.save(media);
-            return ResponseEntity
-                    .created(URI.create("/products/" + productId + "/media/" + saved.getId()))
-                    .body(saved);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            blob = blobStore.store(in);
+        } catch (MediaBlobStore.TooLarge e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
         }
+
+        ProductMedia media = new ProductMedia();
+        media.setProduct(opt.get());
+        media.setDescription(description);
+        // the declared type is kept so validation can reject content that contradicts it
+        media.setMimeType(contentType != null ? contentType : blob.detected() != null ? blob.detected().mimeType() : null);
+        media.setSizeKb((int) Math.max(1, blob.size() / 1024));
+        if (blob.detected() != null) {
+            media.setMediaType(blob.detected().mediaType());
+        } else if (contentType != null && contentType.startsWith("video")) {
+            media.setMediaType(ProductMedia.MediaType.VIDEO);
+        } else {
+            media.setMediaType(ProductMedia.MediaType.IMAGE);
+        }
+        media.setValidationStatus(ProductMedia.ValidationStatus.PENDING);
+        media.setStorageProvider(ProductMedia.StorageProvider.LOCAL);
+        media.setMediaUrl(blob.url());
+
+        ProductMedia saved = mediaPort.save(media);
+        mediaValidation.ifAvailable(w -> w.enqueue(saved.getId()));
+        return ResponseEntity
+                .created(URI.create("/products/" + productId + "/media/" + saved.getId()))
+                .body(saved);
     }
 
     /** Delete a specific media item */
@@ -199,18 +530,34 @@ public class ProductController {
             @PathVariable @Min(1) Long productId,
             @PathVariable @Min(1) Long mediaId
     ) {
-        return productPort.findById(productId)
-                .map(product -> {
-                    Optional<ProductMedia> target = product.getMedia().stream()
-                            .filter(m -> m.getId().equals(mediaId))
-                            .findFirst();
-
-                    if (target.isPresent()) {
-                        mediaPort.deleteById(mediaId);
-                        return ResponseEntity.noContent().<Void>build();
-                    }
-                    return ResponseEntity.notFound().build();
-                })
-                .orElseGet(()->ResponseEntity.notFound().build());
+        // the row itself, not the product's cached media list, which can lag a delete
+        Optional<ProductMedia> target = mediaPort.findById(mediaId)
+                .filter(m -> m.getProduct() != null && productId.equals(m.getProduct().getId()));
+        if (target.isEmpty()) return ResponseEntity.notFound().build();
+        mediaPort.deleteById(mediaId);
+        releaseBlob(target.get().getMediaUrl());
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Deletes the stored file once its last media row is gone; the disk sweep retries what this leaves */
+    private void releaseBlob(String mediaUrl) {
+        try {
+            blobStore.release(mediaUrl);
+        } catch (IOException | RuntimeException ignored) {
+            // left for the sweep
+        }
+    }
+
+    private static Map<String, List<String>> facetFilters(List<String> cuisine, List<String> category,
+                                                          List<String> subcategory, List<String> region,
+                                                          List<String> vendorId, List<String> available) {
+        Map<String, List<String>> f = new LinkedHashMap<>();
+        if (cuisine != null && !cuisine.isEmpty()) f.put("cuisine", cuisine);
+        if (category != null && !category.isEmpty()) f.put("category", category);
+        if (subcategory != null && !subcategory.isEmpty()) f.put("subcategory", subcategory);
+        if (region != null && !region.isEmpty()) f.put("region", region);
+        if (vendorId != null && !vendorId.isEmpty()) f.put("vendorId", vendorId);
+        if (available != null && !available.isEmpty()) f.put("available", available);
+        return f;
     }
 }
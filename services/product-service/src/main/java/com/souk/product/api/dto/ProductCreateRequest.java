@@ -41,6 +41,17 @@ public record ProductCreateRequest(
         return p;
     }
 
+    /** Overwrites an existing product's fields for an upsert; optional fields left null and media are kept. */
+    public Product applyTo(Product existing) {
+        existing.setName(name);
+        existing.setPrice(price);
+        existing.setVendorId(vendorId);
+        if (available != null) existing.setAvailable(available);
+        if (categoryDetails != null) existing.setCategoryDetails(categoryDetails);
+        if (schedule != null) existing.setSchedule(schedule);
+        return existing;
+    }
+
     // Nested record for media items
     public record MediaRequest(
             @NotBlank String mediaUrl,
@@ -6,7 +6,9 @@ import com.souk.common.domain.ProductMedia;
 
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public record ProductUpdateRequest(
         @NotNull Long id,
@@ -40,6 +42,24 @@ public record ProductUpdateRequest(
         return existing;
     }
 
+    /** True when the request replaces the media list, which a plain column update can't do. */
+    public boolean replacesMedia() {
+        return media != null && !media.isEmpty();
+    }
+
+    /** The scalar fields that were sent, keyed by Product attribute, with the same null-means-keep rule as {@link #applyTo}. */
+    public Map<String, Object> changes() {
+        Map<String, Object> c = new LinkedHashMap<>();
+        if (name != null) c.put("name", name);
+        if (sku != null) c.put("sku", sku);
+        if (price != null) c.put("price", price);
+        if (vendorId != null) c.put("vendorId", vendorId);
+        if (available != null) c.put("available", available);
+        if (categoryDetails != null) c.put("categoryDetails", categoryDetails);
+        if (schedule != null) c.put("schedule", schedule);
+        return c;
+    }
+
     public record MediaRequest(
             String mediaUrl,
             String description,
@@ -0,0 +1,67 @@
+package com.souk.product.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 record reader: comma separated, fields optionally in double quotes
+ * (which may hold commas, newlines and doubled quotes), CRLF or LF line ends. Reads one
+ * record at a time, so memory is bounded by the longest record.
+ */
+final class CsvReader {
+    private final Reader in;
+    private int pending = -2; // one char of lookahead; -2 = none
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** The next record's fields, or null at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') c = read();
+        if (c == -1) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Unterminated quoted field");
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') field.append('"');
+                    else { quoted = false; c = n; continue; }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') pending = n;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
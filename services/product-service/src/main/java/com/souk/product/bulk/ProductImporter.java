@@ -0,0 +1,306 @@
+package com.souk.product.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.souk.common.domain.Product;
+import com.souk.common.port.DataAccessPort;
+import com.souk.common.port.ProductQueryPort;
+import com.souk.product.api.dto.ProductCreateRequest;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a CSV or NDJSON catalogue into products, upserting by SKU. Rows are read in
+ * chunks; each chunk is converted and validated in parallel on a private pool, then
+ * written in one batched transaction on a writer thread while the caller reads the next
+ * chunk. At most two chunks are held in memory, whatever the size of the upload.
+ */
+@Component
+public class ProductImporter {
+    public static final String CSV = "text/csv";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("sku", "name", "price", "vendorId");
+    private static final Set<String> JSON_COLUMNS = Set.of("categoryDetails", "schedule");
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    /** {@code row} counts data records from 1, header excluded; blank NDJSON lines are not counted. */
+    public record RowError(long row, String sku, String message) {}
+
+    /** {@code errors} lists at most {@value #MAX_REPORTED_ERRORS} rows; {@code failed} counts them all. */
+    public record Report(long rows, long created, long updated, long failed, List<RowError> errors) {}
+
+    private final DataAccessPort<Product, Long> productPort;
+    private final ProductQueryPort productQueries;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ExecutorService validators;
+    private final ExecutorService writers;
+
+    public ProductImporter(DataAccessPort<Product, Long> productPort,
+                           ProductQueryPort productQueries,
+                           Validator validator,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${products.import.chunk-size:500}") int chunkSize,
+                           @Value("${products.import.validate-threads:4}") int validateThreads,
+                           @Value("${products.import.max-concurrent:2}") int maxConcurrent) {
+        this.productPort = productPort;
+        this.productQueries = productQueries;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.parallelism = validateThreads;
+        this.validators = Executors.newFixedThreadPool(validateThreads, daemon("product-import-validate"));
+        // writes run off the request thread, so each chunk gets a fresh persistence context
+        this.writers = Executors.newFixedThreadPool(maxConcurrent, daemon("product-import-write"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        validators.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    /**
+     * Imports a CSV whose header row names ProductCreateRequest fields (sku, name, price and
+     * vendorId are required; unknown columns are ignored). categoryDetails and schedule
+     * cells hold JSON; empty cells count as absent.
+     *
+     * @throws IllegalArgumentException if the header lacks a required column
+     */
+    public Report importCsv(Reader in) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(in, 64 * 1024));
+        List<String> header = csv.next();
+        if (header == null) return new Report(0, 0, 0, 0, List.of());
+        List<String> columns = header.stream().map(String::trim).toList();
+        if (!columns.containsAll(REQUIRED_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must name " + String.join(", ", REQUIRED_COLUMNS));
+        }
+        return run(csv::next, cells -> rowNode(columns, cells));
+    }
+
+    /** Imports one ProductCreateRequest JSON object per line. */
+    public Report importNdjson(Reader in) throws IOException {
+        BufferedReader lines = new BufferedReader(in, 64 * 1024);
+        return run(() -> {
+            String line;
+            do {
+                line = lines.readLine();
+            } while (line != null && line.isBlank());
+            return line;
+        }, objectMapper::readTree);
+    }
+
+    // ------------------------------------------------------------
+
+    private interface Source<R> { R next() throws IOException; }
+
+    private interface Converter<R> { JsonNode toNode(R record) throws IOException; }
+
+    /** A row that passed validation, or the reason it didn't (then {@code request} is null). */
+    private record Checked(long row, ProductCreateRequest request, String sku, String error) {}
+
+    private static final class Progress {
+        long rows, created, updated, failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void fail(long row, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new RowError(row, sku, message));
+        }
+    }
+
+    /**
+     * Reads, checks and writes chunk by chunk. Input that can no longer be read (a broken
+     * quote, a dropped connection) ends the import: the rows before it are still written
+     * and the report carries the read error as its last row.
+     */
+    private <R> Report run(Source<R> source, Converter<R> converter) {
+        Progress progress = new Progress();
+        CompletableFuture<Void> writing = CompletableFuture.completedFuture(null);
+        List<R> chunk = new ArrayList<>(chunkSize);
+        long firstRow = 1;
+        IOException readError = null;
+        while (true) {
+            R record;
+            try {
+                record = source.next();
+            } catch (IOException e) {
+                readError = e;
+                break;
+            }
+            if (record == null) break;
+            chunk.add(record);
+            if (chunk.size() == chunkSize) {
+                writing = submit(writing, check(chunk, firstRow, converter), progress);
+                firstRow += chunk.size();
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) writing = submit(writing, check(chunk, firstRow, converter), progress);
+        await(writing);
+        if (readError != null) {
+            progress.rows++;
+            progress.fail(firstRow + chunk.size(), null, "Unreadable input, import stopped here: " + readError.getMessage());
+        }
+        return new Report(progress.rows, progress.created, progress.updated, progress.failed, List.copyOf(progress.errors));
+    }
+
+    /** Waits for the previous chunk's write, then hands this one to a writer thread. */
+    private CompletableFuture<Void> submit(CompletableFuture<Void> previous, List<Checked> rows, Progress progress) {
+        await(previous);
+        return CompletableFuture.runAsync(() -> write(rows, progress), writers);
+    }
+
+    private <R> List<Checked> check(List<R> records, long firstRow, Converter<R> converter) {
+        int slice = Math.max(1, (records.size() + parallelism - 1) / parallelism);
+        List<CompletableFuture<List<Checked>>> parts = new ArrayList<>();
+        for (int from = 0; from < records.size(); from += slice) {
+            int start = from, end = Math.min(records.size(), from + slice);
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                List<Checked> out = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) out.add(check(firstRow + i, records.get(i), converter));
+                return out;
+            }, validators));
+        }
+        List<Checked> all = new ArrayList<>(records.size());
+        for (CompletableFuture<List<Checked>> part : parts) all.addAll(await(part));
+        return all;
+    }
+
+    private <R> Checked check(long row, R record, Converter<R> converter) {
+        String sku = null;
+        try {
+            JsonNode node = converter.toNode(record);
+            sku = node.path("sku").asText(null);
+            ProductCreateRequest req = objectMapper.treeToValue(node, ProductCreateRequest.class);
+            Set<ConstraintViolation<ProductCreateRequest>> violations = validator.validate(req);
+            if (!violations.isEmpty()) {
+                return new Checked(row, null, sku, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+            return new Checked(row, req, req.sku(), null);
+        } catch (IOException | IllegalArgumentException e) {
+            return new Checked(row, null, sku, "Unreadable row: " + e.getMessage());
+        }
+    }
+
+    private ObjectNode rowNode(List<String> columns, List<String> cells) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < columns.size() && i < cells.size(); i++) {
+            String cell = cells.get(i).trim();
+            if (cell.isEmpty()) continue;
+            String column = columns.get(i);
+            if (JSON_COLUMNS.contains(column)) node.set(column, objectMapper.readTree(cell));
+            else node.put(column, cell);
+        }
+        return node;
+    }
+
+    // ------------------------------------------------------------
+
+    private void write(List<Checked> rows, Progress progress) {
+        // a later row for the same SKU replaces an earlier one in the same chunk, which is reported as failed
+        Map<String, Checked> bySku = new LinkedHashMap<>();
+        for (Checked r : rows) {
+            progress.rows++;
+            if (r.request() == null) {
+                progress.fail(r.row(), r.sku(), r.error());
+                continue;
+            }
+            Checked replaced = bySku.put(r.request().sku(), r);
+            if (replaced != null) progress.fail(replaced.row(), replaced.sku(), "Superseded by row " + r.row() + " with the same SKU");
+        }
+        if (bySku.isEmpty()) return;
+
+        try {
+            long created = tx.execute(s -> upsert(bySku.values()));
+            progress.created += created;
+            progress.updated += bySku.size() - created;
+        } catch (RuntimeException e) {
+            // one bad row (say an unknown vendor) fails the whole batch; redo row by row to find it
+            for (Checked r : bySku.values()) {
+                try {
+                    if (tx.execute(s -> upsert(List.of(r))) == 1) progress.created++;
+                    else progress.updated++;
+                } catch (RuntimeException rowError) {
+                    progress.fail(r.row(), r.request().sku(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    /** Upserts the rows in the caller's transaction; returns how many were new. */
+    private long upsert(Iterable<Checked> rows) {
+        List<String> skus = new ArrayList<>();
+        for (Checked r : rows) skus.add(r.request().sku());
+        Map<String, Product> existing = new HashMap<>();
+        for (Product p : productQueries.findAllBySku(skus)) existing.put(p.getSku(), p);
+
+        List<Product> batch = new ArrayList<>(skus.size());
+        long created = 0;
+        for (Checked r : rows) {
+            Product current = existing.get(r.request().sku());
+            if (current != null) {
+                batch.add(r.request().applyTo(current));
+            } else {
+                batch.add(r.request().toDomain());
+                created++;
+            }
+        }
+        productPort.saveAll(batch);
+        return created;
+    }
+
+    private static <V> V await(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
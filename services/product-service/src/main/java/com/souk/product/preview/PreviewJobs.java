@@ -0,0 +1,349 @@
+package com.souk.product.preview;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.souk.common.adapters.media.UploadLayout;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads preview URLs into the sharded {@code previews/} tree as background jobs, so no
+ * request thread waits on an upstream host. Downloads run on a bounded private pool with
+ * at most {@code per-host} running against any one host; the rest of a host's jobs wait
+ * in that host's lane without holding a pool thread, so one slow host cannot occupy the
+ * whole pool. Jobs for a URL already being fetched join the running job. Finished jobs
+ * stay pollable for {@code job-ttl}. Every fetch of a stored preview refreshes its
+ * modification time, which the disk janitor uses as last access when trimming to quota.
+ */
+@Component
+public class PreviewJobs {
+    private static final long MAX_BYTES = 20L * 1024 * 1024; // 20MB safety cap
+    private static final int MAX_TRACKED_JOBS = 10_000;
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    /** Thrown by {@link #submit} when {@code max-pending} jobs are already queued or running. */
+    public static final class Busy extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Busy() {
+            super("Too many preview downloads in progress", null, false, false);
+        }
+    }
+
+    public static final class Job {
+        private final String id;
+        private final String url;
+        private final CompletableFuture<Job> done = new CompletableFuture<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile Map<String, Object> result;
+        private volatile String error;
+        private volatile Integer upstreamStatus;
+
+        Job(String url) {
+            this.id = UUID.randomUUID().toString();
+            this.url = url;
+        }
+
+        public String id() { return id; }
+        public Status status() { return status; }
+
+        /** Completes with this job once it is DONE or FAILED; never completes exceptionally. */
+        public CompletableFuture<Job> completion() { return done; }
+
+        /** The JSON body for this job's current state. */
+        public Map<String, Object> view() {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("jobId", id);
+            out.put("url", url);
+            out.put("status", status);
+            if (result != null) out.putAll(result);
+            if (error != null) out.put("error", error);
+            if (upstreamStatus != null) out.put("upstreamStatus", upstreamStatus);
+            return out;
+        }
+
+        void succeed(Map<String, Object> result) {
+            this.result = result;
+            this.status = Status.DONE;
+            done.complete(this);
+        }
+
+        void fail(Integer upstreamStatus, String error) {
+            this.upstreamStatus = upstreamStatus;
+            this.error = error;
+            this.status = Status.FAILED;
+            done.complete(this);
+        }
+    }
+
+    /** A failure with the upstream status worth reporting. */
+    private static final class FetchFailed extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        FetchFailed(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /** Jobs for one host: how many are running, and the ones waiting for a slot. */
+    private static final class Lane {
+        int running;
+        final Deque<Runnable> waiting = new ArrayDeque<>();
+    }
+
+    private final HttpClient http;
+    private final Path uploadsDir;
+    private final int perHost;
+    private final int maxPending;
+    private final Duration requestTimeout;
+    private final ExecutorService pool;
+    private final Cache<String, Job> jobs;
+    // running or queued downloads by URL hash; a second fetch of the same URL joins the first
+    private final ConcurrentHashMap<String, Job> byHash = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public PreviewJobs(HttpClient http,
+                       @Value("${media.uploads-dir:${user.home}/souk-uploads}") String uploadsDir,
+                       @Value("${preview.threads:16}") int threads,
+                       @Value("${preview.per-host:2}") int perHost,
+                       @Value("${preview.max-pending:500}") int maxPending,
+                       @Value("${preview.request-timeout:30s}") Duration requestTimeout,
+                       @Value("${preview.job-ttl:15m}") Duration jobTtl) {
+        this.http = http;
+        this.uploadsDir = Path.of(uploadsDir).toAbsolutePath().normalize();
+        this.perHost = perHost;
+        this.maxPending = maxPending;
+        this.requestTimeout = requestTimeout;
+        // unbounded queue, but never longer than max-pending: submit refuses beyond that
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("preview-fetch"));
+        executor.allowCoreThreadTimeOut(true);
+        this.pool = executor;
+        this.jobs = Caffeine.newBuilder().maximumSize(MAX_TRACKED_JOBS).expireAfterWrite(jobTtl).build();
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Starts fetching {@code url} (http or https), or joins the job already fetching it.
+     * A URL that was fetched before comes back as a job that is already DONE.
+     *
+     * @throws Busy if {@code max-pending} downloads are already queued or running
+     * @throws IllegalArgumentException if {@code url} is not a valid URI
+     */
+    public Job submit(String url) throws IOException {
+        String host = String.valueOf(URI.create(url).getHost()).toLowerCase(Locale.ROOT);
+        String hash = sha256Hex(url);
+        Path dir = uploadsDir.resolve(UploadLayout.previewDir(hash));
+        Files.createDirectories(dir);
+
+        // Try to infer extension from URL; fallback later from content-type
+        String ext = inferredExtFromUrl(url);
+        Path cached = dir.resolve(hash + (ext != null ? ("." + ext) : ""));
+        if (Files.exists(cached)) {
+            touch(cached);
+            Job job = new Job(url);
+            job.succeed(result(cached, null, Files.size(cached)));
+            jobs.put(job.id(), job);
+            return job;
+        }
+
+        Job job = new Job(url);
+        Job running = byHash.putIfAbsent(hash, job);
+        if (running != null) return running;
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            byHash.remove(hash, job);
+            throw new Busy();
+        }
+        jobs.put(job.id(), job);
+        dispatch(host, () -> run(job, url, dir, hash, ext));
+        return job;
+    }
+
+    public Optional<Job> find(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    // ------------------------------------------------------------
+
+    private void dispatch(String host, Runnable task) {
+        Lane lane = lanes.computeIfAbsent(host, h -> new Lane());
+        synchronized (lane) {
+            if (lane.running < perHost) {
+                lane.running++;
+                start(host, lane, task);
+            } else {
+                lane.waiting.add(task);
+            }
+        }
+    }
+
+    /** Called holding the lane's lock; the finishing task hands its slot to the next one waiting. */
+    private void start(String host, Lane lane, Runnable task) {
+        pool.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                synchronized (lane) {
+                    Runnable next = lane.waiting.poll();
+                    if (next != null) {
+                        start(host, lane, next);
+                    } else if (--lane.running == 0) {
+                        lanes.remove(host, lane);
+                    }
+                }
+            }
+        });
+    }
+
+    private void run(Job job, String url, Path dir, String hash, String ext) {
+        job.status = Status.RUNNING;
+        try {
+            job.succeed(download(url, dir, hash, ext));
+        } catch (FetchFailed e) {
+            job.fail(e.status, e.getMessage());
+        } catch (Exception e) {
+            job.fail(null, String.valueOf(e.getMessage()));
+        } finally {
+            byHash.remove(hash, job);
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Streams the body to a temp file and renames it into place, so a reader never sees a
+     * partial file and a failed download leaves nothing behind.
+     */
+    private Map<String, Object> download(String url, Path dir, String hash, String ext) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout).GET().build();
+        HttpResponse<InputStream> resp = http.send(req, HttpResponse.BodyHandlers.ofInputStream());
+        if (resp.statusCode() >= 400) {
+            resp.body().close();
+            throw new FetchFailed(resp.statusCode(), "Upstream returned " + resp.statusCode());
+        }
+        String mime = resp.headers().firstValue("content-type").orElse(null);
+        if (ext == null && mime != null) {
+            ext = extFromMime(mime);
+        }
+        Path target = dir.resolve(hash + (ext != null ? ("." + ext) : ""));
+        Files.createDirectories(dir); // the janitor may have removed it as empty meanwhile
+        Path tmp = Files.createTempFile(dir, hash, ".part");
+        try {
+            long written = 0;
+            try (InputStream in = resp.body(); OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buf = new byte[8192];
+                int r;
+                while ((r = in.read(buf)) != -1) {
+                    written += r;
+                    if (written > MAX_BYTES) throw new FetchFailed(413, "File too large (>20MB)");
+                    out.write(buf, 0, r);
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return result(target, mime, written);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Map<String, Object> result(Path file, String mime, long size) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("localUrl", "/uploads/" + uploadsDir.relativize(file).toString().replace('\\', '/'));
+        if (mime == null) mime = probeMime(file);
+        if (mime != null) out.put("mimeType", mime);
+        out.put("size", size);
+        return out;
+    }
+
+    private static void touch(Path p) {
+        try {
+            Files.setLastModifiedTime(p, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // only costs the file its place in the LRU order
+        }
+    }
+
+    private static String probeMime(Path p) {
+        try { return Files.probeContentType(p); } catch (Exception ignored) { return null; }
+    }
+
+    private static String inferredExtFromUrl(String url) {
+        int q = url.indexOf('?');
+        String path = q >= 0 ? url.substring(0, q) : url;
+        int dot = path.lastIndexOf('.');
+        if (dot > 0 && dot > path.lastIndexOf('/')) {
+            String e = path.substring(dot + 1).toLowerCase();
+            if (e.length() <= 5) return e;
+        }
+        return null;
+    }
+
+    private static String extFromMime(String mime) {
+        if (mime == null) return null;
+        int semi = mime.indexOf(';');
+        String m = (semi >= 0 ? mime.substring(0, semi) : mime).trim().toLowerCase();
+        if (m.startsWith("image/")) return m.substring(6);
+        if (m.startsWith("video/")) return m.substring(6);
+        return null;
+    }
+
+    private static String sha256Hex(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -5,5 +5,6 @@ CREATE TABLE Cuisines (
   subcategory VARCHAR(100) NOT NULL,      -- e.g., South Indian
   region      VARCHAR(100) NOT NULL,      -- e.g., TN, Kerala, Bengali
   created_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  version     BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT uq_cuisine UNIQUE (cuisinename, category, subcategory, region)
 );
\ No newline at end of file
@@ -6,6 +6,7 @@ CREATE TABLE customers (
   phone VARCHAR(30) UNIQUE,
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  version BIGINT NOT NULL DEFAULT 0,
 
   INDEX idx_customer_email (email),
   INDEX idx_customer_phone (phone)
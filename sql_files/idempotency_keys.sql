@@ -0,0 +1,10 @@
+CREATE TABLE idempotency_keys (
+  record_key    VARCHAR(300) PRIMARY KEY,   -- "<scope>:<Idempotency-Key header>"
+  request_hash  CHAR(64) NOT NULL,          -- SHA-256 of the request body the key was first used with
+  status_code   INT NULL,                   -- NULL while the first request is still running
+  response_body LONGTEXT NULL,
+  created_at    DATETIME NOT NULL,
+  expires_at    DATETIME NOT NULL,
+
+  INDEX idx_idempotency_expires_at (expires_at)
+);
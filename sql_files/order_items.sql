@@ -11,9 +11,19 @@ CREATE TABLE order_items (
   delivery_flexibility ENUM('STRICT','FLEXIBLE') DEFAULT 'FLEXIBLE',
   delivery_slot_start TIME NULL,
   delivery_slot_end TIME NULL,
+  reserved_slot_start TIME NULL,  -- stock_ledger slot this line reserved against
 
   FOREIGN KEY (order_id)  REFERENCES orders(order_id)
     ON DELETE CASCADE ON UPDATE CASCADE,
   FOREIGN KEY (product_id) REFERENCES products(product_id)
     ON DELETE RESTRICT ON UPDATE CASCADE
 );
+
+-- Ids come from a pooled sequence (Hibernate reserves 50 at a time) so inserts can be batched.
+-- Restart it above any existing rows; the extra 50 covers the block Hibernate derives from the first value.
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+SET @next_id = (SELECT COALESCE(MAX(order_item_id), 0) + 51 FROM order_items);
+SET @restart = CONCAT('ALTER SEQUENCE order_items_seq RESTART WITH ', @next_id);
+PREPARE restart_seq FROM @restart;
+EXECUTE restart_seq;
+DEALLOCATE PREPARE restart_seq;
@@ -16,6 +16,7 @@ CREATE TABLE orders (
   notes TEXT NULL,
   created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  version BIGINT NOT NULL DEFAULT 0,            -- optimistic-lock counter
 
   CONSTRAINT fk_order_customer FOREIGN KEY (customer_id)
     REFERENCES customers(customer_id)
@@ -31,3 +32,12 @@ CREATE TABLE orders (
   INDEX idx_orders_status     (status),
   INDEX idx_orders_created_at (created_at)
 );
+
+-- Ids come from a pooled sequence (Hibernate reserves 50 at a time) so inserts can be batched.
+-- Restart it above any existing rows; the extra 50 covers the block Hibernate derives from the first value.
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+SET @next_id = (SELECT COALESCE(MAX(order_id), 0) + 51 FROM orders);
+SET @restart = CONCAT('ALTER SEQUENCE orders_seq RESTART WITH ', @next_id);
+PREPARE restart_seq FROM @restart;
+EXECUTE restart_seq;
+DEALLOCATE PREPARE restart_seq;
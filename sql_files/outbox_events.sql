@@ -0,0 +1,15 @@
+CREATE TABLE outbox_events (
+  event_id      BIGINT PRIMARY KEY,
+  entity_type   VARCHAR(50) NOT NULL,   -- entity class, e.g. 'Product'
+  entity_id     VARCHAR(64) NOT NULL,
+  operation     ENUM('UPSERT','DELETE') NOT NULL,
+  created_at    DATETIME NOT NULL,
+  feed_position BIGINT NULL,            -- assigned by the relay; the /changes cursor
+  published_at  DATETIME NULL,
+
+  UNIQUE INDEX uq_outbox_feed_position (feed_position),
+  INDEX idx_outbox_published_at (published_at)
+);
+
+-- Pooled ids (Hibernate reserves 50 at a time) so outbox rows batch with the writes they record
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 50;
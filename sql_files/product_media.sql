@@ -21,5 +21,6 @@ CREATE TABLE product_media (
     ON UPDATE CASCADE,
   INDEX idx_product_media_product_id (product_id),
   INDEX idx_product_media_status (validation_status),
-  INDEX idx_product_media_type (media_type)
+  INDEX idx_product_media_type (media_type),
+  INDEX idx_product_media_url (media_url(255))
 );
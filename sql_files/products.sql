@@ -72,6 +72,7 @@
       `estimated_delivery_time_day_end` INT NULL COMMENT 'Maximum days needed to deliver the product',
       `created_at` timestamp NOT NULL DEFAULT current_timestamp(),
       `schedule_updated` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),
+      `version` BIGINT NOT NULL DEFAULT 0 COMMENT 'Optimistic-lock counter, bumped by every update',
       CONSTRAINT uq_product_sku UNIQUE (sku),
       CONSTRAINT chk_category_details_json_valid CHECK (JSON_VALID(category_details)),
       CONSTRAINT chk_schedule_json_valid          CHECK (JSON_VALID(schedule)),
@@ -94,4 +95,13 @@
         FOREIGN KEY (vendor_id) REFERENCES vendor_details(vendor_id)
         ON UPDATE CASCADE
         ON DELETE RESTRICT
-    );
\ No newline at end of file
+    );
+
+-- Ids come from a pooled sequence (Hibernate reserves 50 at a time) so imports can batch inserts.
+-- Restart it above any existing rows; the extra 50 covers the block Hibernate derives from the first value.
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+SET @next_id = (SELECT COALESCE(MAX(product_id), 0) + 51 FROM products);
+SET @restart = CONCAT('ALTER SEQUENCE products_seq RESTART WITH ', @next_id);
+PREPARE restart_seq FROM @restart;
+EXECUTE restart_seq;
+DEALLOCATE PREPARE restart_seq;
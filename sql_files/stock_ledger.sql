@@ -0,0 +1,13 @@
+CREATE TABLE stock_ledger (
+  product_id BIGINT NOT NULL,
+  slot_date  DATE NOT NULL,
+  slot_start TIME NOT NULL,     -- start of the schedule window the units belong to
+  capacity   INT NOT NULL,      -- "stock" of that window when the first unit was reserved
+  reserved   INT NOT NULL DEFAULT 0,
+  updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,  -- last reservation or release
+
+  PRIMARY KEY (product_id, slot_date, slot_start),
+  CONSTRAINT chk_stock_ledger_reserved CHECK (reserved >= 0),
+  FOREIGN KEY (product_id) REFERENCES products(product_id)
+    ON DELETE CASCADE ON UPDATE CASCADE
+);
@@ -0,0 +1,5 @@
+-- Write counter per entity type (bumped with every save/delete); source of collection ETags
+CREATE TABLE table_versions (
+  entity_type VARCHAR(50) PRIMARY KEY,
+  version     BIGINT NOT NULL
+);
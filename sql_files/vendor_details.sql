@@ -41,6 +41,7 @@ CREATE TABLE `vendor_details` (
   `phone_number` varchar(20) DEFAULT NULL,
   `email` varchar(100) DEFAULT NULL,
   `created_at` timestamp NOT NULL DEFAULT current_timestamp(),
+  `version` bigint NOT NULL DEFAULT 0,
   -- Basic JSON validity checks (enforced in MySQL 8.0.16+)
   CONSTRAINT chk_supported_json_valid CHECK (JSON_VALID(supportedCategories)),
   CONSTRAINT chk_supported_is_array   CHECK (JSON_TYPE(supportedCategories) = 'ARRAY')
@@ -14,9 +14,59 @@ export async function api<T>(path: string, init?: RequestInit): Promise<T> {
   return (await res.json()) as T;
 }
 
+// List endpoints are keyset paged: follow X-Next-Cursor until the last page
+export async function apiAll<T>(path: string, pageSize = 1000): Promise<T[]> {
+  const sep = path.includes('?') ? '&' : '?';
+  const out: T[] = [];
+  let after: string | null = null;
+  do {
+    const query: string = `limit=${pageSize}` + (after ? `&after=${encodeURIComponent(after)}` : '');
+    const res = await fetch(`${base}${path}${sep}${query}`, { headers: { 'Content-Type': 'application/json' } });
+    if (!res.ok) {
+      const text = await res.text().catch(() => '');
+      throw new Error(`HTTP ${res.status}: ${text}`);
+    }
+    out.push(...((await res.json()) as T[]));
+    after = res.headers.get('X-Next-Cursor');
+  } while (after);
+  return out;
+}
+
+export type PreviewJob = {
+  jobId: string;
+  url: string;
+  status: 'QUEUED' | 'RUNNING' | 'DONE' | 'FAILED';
+  localUrl?: string;
+  mimeType?: string;
+  size?: number;
+  error?: string;
+  upstreamStatus?: number;
+};
+
+// Seconds each job poll is held open by the server while the download runs
+const PREVIEW_WAIT_SECONDS = 30;
+
+// POST /preview/fetch answers 202 with a queued job; its Location is long-polled until it finishes
 export async function fetchPreview(url: string): Promise<{ localUrl: string; mimeType?: string; size?: number }>
 {
-  return api('/preview/fetch', { method: 'POST', body: JSON.stringify({ url }) });
+  const res = await fetch(`${base}/preview/fetch`, {
+    method: 'POST',
+    headers: { 'Content-Type': 'application/json' },
+    body: JSON.stringify({ url }),
+  });
+  if (!res.ok) {
+    const text = await res.text().catch(() => '');
+    throw new Error(`HTTP ${res.status}: ${text}`);
+  }
+  let job = (await res.json()) as PreviewJob;
+  const location = res.headers.get('Location') || `/preview/jobs/${job.jobId}`;
+  while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+    job = await api<PreviewJob>(`${location}?wait=${PREVIEW_WAIT_SECONDS}`);
+  }
+  if (job.status === 'FAILED' || !job.localUrl) {
+    throw new Error(job.error || `Preview of ${url} failed`);
+  }
+  return { localUrl: job.localUrl, mimeType: job.mimeType, size: job.size };
 }
 
 export type Vendor = {
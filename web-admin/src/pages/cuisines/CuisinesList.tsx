@@ -1,13 +1,13 @@
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { Button, Card, CardContent, CircularProgress, Stack, Table, TableBody, TableCell, TableHead, TableRow, Typography } from '@mui/material';
 import { Link } from 'react-router-dom';
-import { api, Cuisine } from '../../lib/apiClient';
+import { api, apiAll, Cuisine } from '../../lib/apiClient';
 
 export default function CuisinesList() {
   const qc = useQueryClient();
   const { data, isLoading, error } = useQuery({
     queryKey: ['cuisines'],
-    queryFn: () => api<Cuisine[]>('/cuisines'),
+    queryFn: () => apiAll<Cuisine>('/cuisines'),
   });
 
   const del = useMutation({
@@ -1,13 +1,13 @@
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { Button, Card, CardContent, CircularProgress, Stack, Table, TableBody, TableCell, TableHead, TableRow, Typography } from '@mui/material';
 import { Link } from 'react-router-dom';
-import { api, Customer } from '../../lib/apiClient';
+import { api, apiAll, Customer } from '../../lib/apiClient';
 
 export default function CustomersList() {
   const qc = useQueryClient();
   const { data, isLoading, error } = useQuery({
     queryKey: ['customers'],
-    queryFn: () => api<Customer[]>('/customers'),
+    queryFn: () => apiAll<Customer>('/customers'),
   });
 
   const del = useMutation({
@@ -5,7 +5,7 @@ import { useEffect, useMemo, useState } from 'react';
 import { useForm, Controller } from 'react-hook-form';
 import { useMutation, useQuery, useQueryClient } from '@tanstack/react-query';
 import { useNavigate, useParams } from 'react-router-dom';
-import { api, Product, Vendor } from '../../lib/apiClient';
+import { api, apiAll, Product, Vendor } from '../../lib/apiClient';
 import { z } from 'zod';
 import PreviewGallery, { PreviewItem } from '../../components/previewgallery';
 import { fetchPreview } from '../../lib/apiClient';
@@ -42,7 +42,7 @@ export default function ProductForm({ mode }: { mode: 'create' | 'edit' }) {
     queryKey: ['vendors', minChars ? debounced : 'all'],
     queryFn: () => minChars
       ? api<Vendor[]>(`/vendors?q=${encodeURIComponent(debounced)}`)
-      : api<Vendor[]>('/vendors'),
+      : apiAll<Vendor>('/vendors'),
     placeholderData: (prev) => prev ?? [],
     staleTime: 10_000,
   });
@@ -1,13 +1,13 @@
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { Button, Card, CardContent, CircularProgress, Stack, Table, TableBody, TableCell, TableHead, TableRow, Typography } from '@mui/material';
 import { Link } from 'react-router-dom';
-import { api, Product } from '../../lib/apiClient';
+import { api, apiAll, Product } from '../../lib/apiClient';
 
 export default function ProductsList() {
   const qc = useQueryClient();
   const { data, isLoading, error } = useQuery({
     queryKey: ['products'],
-    queryFn: () => api<Product[]>('/products'),
+    queryFn: () => apiAll<Product>('/products'),
   });
 
   const del = useMutation({
@@ -1,13 +1,13 @@
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import { Button, Card, CardContent, CircularProgress, Stack, Table, TableBody, TableCell, TableHead, TableRow, Typography } from '@mui/material';
 import { Link } from 'react-router-dom';
-import { api, Vendor } from '../../lib/apiClient';
+import { api, apiAll, Vendor } from '../../lib/apiClient';
 
 export default function VendorsList() {
   const qc = useQueryClient();
   const { data, isLoading, error } = useQuery({
     queryKey: ['vendors'],
-    queryFn: () => api<Vendor[]>('/vendors'),
+    queryFn: () => apiAll<Vendor>('/vendors'),
   });
 
   const del = useMutation({